@@ -0,0 +1,5 @@
+module org.madbunny.converter.client {
+    requires java.net.http;
+
+    exports org.madbunny.converter.client;
+}
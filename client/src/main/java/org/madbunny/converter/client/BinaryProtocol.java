@@ -0,0 +1,163 @@
+package org.madbunny.converter.client;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Length-prefixed binary protocol of the converter. Every frame starts with an int32 length of the rest of the frame,
+ * a whole frame takes at most MAX_FRAME_LENGTH bytes. All integers are big-endian and strings are encoded as an uint16
+ * length followed by UTF-8 bytes.
+ * Request:  int32 id, string from, string to, uint8 precision (0 for the server default), optional string catalog
+ *           (the default catalog of the server is used if the frame ends before it).
+ * Response: int32 id, uint8 status, string value (the converted value if the status is OK or an error message).
+ * Responses carry the id of their request and may come in any order.
+ */
+public abstract class BinaryProtocol {
+    public static class Request {
+        public final int id;
+        public final String from;
+        public final String to;
+        public final int precision;
+        // Null for the default catalog
+        public final String catalog;
+
+        public Request(int id, String from, String to, int precision, String catalog) {
+            this.id = id;
+            this.from = from;
+            this.to = to;
+            this.precision = precision;
+            this.catalog = catalog;
+        }
+    }
+
+    public static class Response {
+        public final int id;
+        public final byte status;
+        public final String value;
+
+        public Response(int id, byte status, String value) {
+            this.id = id;
+            this.status = status;
+            this.value = value;
+        }
+
+        public boolean isSuccess() {
+            return status == STATUS_OK;
+        }
+    }
+
+    public static final int LENGTH_FIELD_SIZE = 4;
+    // Including the length prefix
+    public static final int MAX_FRAME_LENGTH = 64 * 1024;
+    public static final int MAX_STRING_LENGTH = 0xFFFF;
+    // Longest value in bytes which a response frame could carry
+    public static final int MAX_RESPONSE_VALUE_LENGTH = MAX_FRAME_LENGTH - LENGTH_FIELD_SIZE - Integer.BYTES
+            - Byte.BYTES - Short.BYTES;
+    public static final int DEFAULT_PRECISION = 0;
+    public static final int MAX_PRECISION = 0xFF;
+
+    public static final byte STATUS_OK = 0;
+    public static final byte STATUS_UNKNOWN_UNITS = 1;
+    public static final byte STATUS_IMPOSSIBLE_TO_CONVERT = 2;
+    public static final byte STATUS_INCORRECT_EXPRESSION = 3;
+    public static final byte STATUS_INTERNAL_ERROR = 4;
+    // The request is rejected without processing, it is safe to retry it later
+    public static final byte STATUS_OVERLOADED = 5;
+    public static final byte STATUS_UNKNOWN_CATALOG = 6;
+
+    /**
+     * @return  a whole frame including the length prefix, ready to be written.
+     */
+    public static ByteBuffer encodeRequest(Request request) {
+        if (request.precision < 0 || request.precision > MAX_PRECISION) {
+            throw new IllegalArgumentException(String.format("Precision must be in [0, %d]: %d", MAX_PRECISION,
+                    request.precision));
+        }
+        var from = toBytes(request.from);
+        var to = toBytes(request.to);
+        var catalog = request.catalog == null ? null : toBytes(request.catalog);
+        var bodyLength = Integer.BYTES + stringSize(from) + stringSize(to) + Byte.BYTES;
+        if (catalog != null) {
+            bodyLength += stringSize(catalog);
+        }
+        checkFrameLength(bodyLength);
+        var buffer = ByteBuffer.allocate(LENGTH_FIELD_SIZE + bodyLength)
+                .putInt(bodyLength)
+                .putInt(request.id);
+        putString(buffer, from);
+        putString(buffer, to);
+        buffer.put((byte)request.precision);
+        if (catalog != null) {
+            putString(buffer, catalog);
+        }
+        return buffer.flip();
+    }
+
+    /**
+     * @param frame a frame without the length prefix.
+     */
+    public static Request decodeRequest(ByteBuffer frame) {
+        var id = frame.getInt();
+        var from = getString(frame);
+        var to = getString(frame);
+        var precision = Byte.toUnsignedInt(frame.get());
+        var catalog = frame.hasRemaining() ? getString(frame) : null;
+        return new Request(id, from, to, precision, catalog);
+    }
+
+    /**
+     * @return  a whole frame including the length prefix, ready to be written.
+     */
+    public static ByteBuffer encodeResponse(Response response) {
+        var value = toBytes(response.value);
+        var bodyLength = Integer.BYTES + Byte.BYTES + stringSize(value);
+        checkFrameLength(bodyLength);
+        var buffer = ByteBuffer.allocate(LENGTH_FIELD_SIZE + bodyLength)
+                .putInt(bodyLength)
+                .putInt(response.id)
+                .put(response.status);
+        putString(buffer, value);
+        return buffer.flip();
+    }
+
+    /**
+     * @param frame a frame without the length prefix.
+     */
+    public static Response decodeResponse(ByteBuffer frame) {
+        var id = frame.getInt();
+        var status = frame.get();
+        var value = getString(frame);
+        return new Response(id, status, value);
+    }
+
+    private static byte[] toBytes(String value) {
+        var bytes = value.getBytes(StandardCharsets.UTF_8);
+        if (bytes.length > MAX_STRING_LENGTH) {
+            throw new IllegalArgumentException(String.format("String is too long: %d bytes", bytes.length));
+        }
+        return bytes;
+    }
+
+    // The receiver closes the connection on a longer frame, which fails all the requests pipelined on it
+    private static void checkFrameLength(int bodyLength) {
+        if (LENGTH_FIELD_SIZE + bodyLength > MAX_FRAME_LENGTH) {
+            throw new IllegalArgumentException(String.format("Frame is too long: %d bytes",
+                    LENGTH_FIELD_SIZE + bodyLength));
+        }
+    }
+
+    private static int stringSize(byte[] bytes) {
+        return Short.BYTES + bytes.length;
+    }
+
+    private static void putString(ByteBuffer buffer, byte[] bytes) {
+        buffer.putShort((short)bytes.length).put(bytes);
+    }
+
+    private static String getString(ByteBuffer buffer) {
+        var length = Short.toUnsignedInt(buffer.getShort());
+        var bytes = new byte[length];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
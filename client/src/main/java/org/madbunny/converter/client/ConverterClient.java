@@ -0,0 +1,117 @@
+package org.madbunny.converter.client;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.Socket;
+import java.nio.ByteBuffer;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Client of the binary protocol of the converter. Requests are pipelined over a single connection: any number of them
+ * could be in flight, and the responses are matched to the requests by their ids. Thread-safe.
+ */
+public class ConverterClient implements AutoCloseable {
+    private final Socket socket;
+    private final OutputStream output;
+    private final DataInputStream input;
+    private final AtomicInteger nextId = new AtomicInteger();
+    private final Map<Integer, CompletableFuture<BinaryProtocol.Response>> pending = new ConcurrentHashMap<>();
+    // Set once the connection is broken, after that all the requests fail immediately
+    private volatile IOException failure;
+
+    public ConverterClient(String host, int port) throws IOException {
+        socket = new Socket(host, port);
+        socket.setTcpNoDelay(true);
+        output = socket.getOutputStream();
+        input = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+        var reader = new Thread(this::readResponses, "converter-client-reader");
+        reader.setDaemon(true);
+        reader.start();
+    }
+
+    /**
+     * @param catalog   name of the catalog on the server or null for the default one.
+     */
+    public CompletableFuture<BinaryProtocol.Response> convertAsync(String catalog, String from, String to,
+                                                                   int precision) {
+        var id = nextId.getAndIncrement();
+        // Encoded first, so that an incorrect request leaves nothing pending
+        var frame = BinaryProtocol.encodeRequest(new BinaryProtocol.Request(id, from, to, precision, catalog));
+        var future = new CompletableFuture<BinaryProtocol.Response>();
+        pending.put(id, future);
+        if (failure != null) {
+            pending.remove(id);
+            future.completeExceptionally(failure);
+            return future;
+        }
+
+        try {
+            synchronized (output) {
+                output.write(frame.array(), frame.arrayOffset(), frame.remaining());
+                output.flush();
+            }
+        } catch (IOException exception) {
+            pending.remove(id);
+            future.completeExceptionally(exception);
+        }
+        return future;
+    }
+
+    public CompletableFuture<BinaryProtocol.Response> convertAsync(String from, String to, int precision) {
+        return convertAsync(null, from, to, precision);
+    }
+
+    public CompletableFuture<BinaryProtocol.Response> convertAsync(String from, String to) {
+        return convertAsync(null, from, to, BinaryProtocol.DEFAULT_PRECISION);
+    }
+
+    public BinaryProtocol.Response convert(String from, String to) throws IOException, InterruptedException {
+        try {
+            return convertAsync(from, to).get();
+        } catch (ExecutionException exception) {
+            throw new IOException(exception.getCause());
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        socket.close();
+    }
+
+    private void readResponses() {
+        try {
+            while (true) {
+                var length = input.readInt();
+                if (length < 0 || length > BinaryProtocol.MAX_FRAME_LENGTH - BinaryProtocol.LENGTH_FIELD_SIZE) {
+                    throw new IOException(String.format("Incorrect frame length: %d", length));
+                }
+                var frame = new byte[length];
+                input.readFully(frame);
+
+                var response = BinaryProtocol.decodeResponse(ByteBuffer.wrap(frame));
+                var future = pending.remove(response.id);
+                if (future != null) {
+                    future.complete(response);
+                }
+            }
+        } catch (IOException exception) {
+            failPending(exception);
+        }
+    }
+
+    private void failPending(IOException exception) {
+        failure = exception;
+        for (var id : pending.keySet()) {
+            var future = pending.remove(id);
+            if (future != null) {
+                future.completeExceptionally(exception);
+            }
+        }
+    }
+}
@@ -0,0 +1,77 @@
+package org.madbunny.converter.client.benchmark;
+
+import org.madbunny.converter.client.ConverterClient;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Semaphore;
+import java.util.function.Supplier;
+
+/**
+ * Compares throughput of the binary protocol and of the HTTP endpoint of a running server.
+ * Usage: ClientBenchmark host binaryPort httpPort from to [requests] [inFlight]
+ */
+public class ClientBenchmark {
+    private static final int DEFAULT_REQUESTS = 200_000;
+    private static final int DEFAULT_IN_FLIGHT = 256;
+    private static final int WARMUP_DIVIDER = 10;
+
+    public static void main(String[] args) throws Exception {
+        if (args.length < 5) {
+            System.err.println("Usage: ClientBenchmark host binaryPort httpPort from to [requests] [inFlight]");
+            System.exit(1);
+        }
+
+        var host = args[0];
+        var binaryPort = Integer.parseInt(args[1]);
+        var httpPort = Integer.parseInt(args[2]);
+        var from = args[3];
+        var to = args[4];
+        var requests = args.length > 5 ? Integer.parseInt(args[5]) : DEFAULT_REQUESTS;
+        var inFlight = args.length > 6 ? Integer.parseInt(args[6]) : DEFAULT_IN_FLIGHT;
+
+        try (var client = new ConverterClient(host, binaryPort)) {
+            Supplier<CompletableFuture<?>> binaryCall = () -> client.convertAsync(from, to);
+            run("binary", binaryCall, requests / WARMUP_DIVIDER, inFlight);
+            report("binary", run("binary", binaryCall, requests, inFlight), requests);
+        }
+
+        var httpClient = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+        var body = String.format("{\"from\":\"%s\",\"to\":\"%s\"}", from, to);
+        var httpRequest = HttpRequest.newBuilder(URI.create(String.format("http://%s:%d/convert", host, httpPort)))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(body))
+                .build();
+        Supplier<CompletableFuture<?>> httpCall = () ->
+                httpClient.sendAsync(httpRequest, HttpResponse.BodyHandlers.ofString());
+        run("http", httpCall, requests / WARMUP_DIVIDER, inFlight);
+        report("http", run("http", httpCall, requests, inFlight), requests);
+    }
+
+    // Keeps at most inFlight calls outstanding and returns the elapsed time in nanoseconds
+    private static long run(String name, Supplier<CompletableFuture<?>> call, int requests, int inFlight)
+            throws InterruptedException {
+        var permits = new Semaphore(inFlight);
+        var begin = System.nanoTime();
+        for (int i = 0; i < requests; i++) {
+            permits.acquire();
+            call.get().whenComplete((result, error) -> {
+                if (error != null) {
+                    System.err.println(name + ": " + error.getMessage());
+                }
+                permits.release();
+            });
+        }
+        permits.acquire(inFlight);
+        return System.nanoTime() - begin;
+    }
+
+    private static void report(String name, long elapsedNanos, int requests) {
+        var seconds = elapsedNanos / 1e9;
+        System.out.printf("%s: %d requests in %.3f s, %.0f req/s, %.1f us/req%n",
+                name, requests, seconds, requests / seconds, elapsedNanos / 1e3 / requests);
+    }
+}
@@ -1,6 +1,7 @@
 module org.madbunny.converter.core {
     requires opencsv;
     requires slf4j.api;
+    requires jdk.jfr;
 
     exports org.madbunny.converter.core.api;
     exports org.madbunny.converter.core.api.exceptions;
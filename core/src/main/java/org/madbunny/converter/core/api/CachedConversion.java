@@ -0,0 +1,30 @@
+package org.madbunny.converter.core.api;
+
+import java.math.BigDecimal;
+
+/**
+ * A successful conversion kept by a CachingUnitsConverter.
+ */
+public class CachedConversion {
+    private final String from;
+    private final String to;
+    private final BigDecimal value;
+
+    public CachedConversion(String from, String to, BigDecimal value) {
+        this.from = from;
+        this.to = to;
+        this.value = value;
+    }
+
+    public String getFrom() {
+        return from;
+    }
+
+    public String getTo() {
+        return to;
+    }
+
+    public BigDecimal getValue() {
+        return value;
+    }
+}
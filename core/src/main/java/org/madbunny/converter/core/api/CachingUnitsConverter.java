@@ -0,0 +1,26 @@
+package org.madbunny.converter.core.api;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * A converter which remembers successful conversions. Its content could be exported and imported, e.g. to start
+ * a new process with a warm cache.
+ */
+public interface CachingUnitsConverter extends UnitsConverter {
+    /**
+     * @return  at most limit cached conversions, the most requested ones first.
+     */
+    List<CachedConversion> getHottest(int limit);
+
+    /**
+     * Puts the conversions into the cache as is, they must be made over the same units database.
+     */
+    void preload(Collection<CachedConversion> conversions);
+
+    /**
+     * @return  a converter over the same cache whose requests are not counted as hits, e.g. for synthetic requests
+     *          which should not make their conversions the hottest ones.
+     */
+    UnitsConverter withoutHitCounting();
+}
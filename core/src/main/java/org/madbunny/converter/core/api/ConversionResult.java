@@ -0,0 +1,126 @@
+package org.madbunny.converter.core.api;
+
+import org.madbunny.converter.core.api.exceptions.EmptyExpressionException;
+import org.madbunny.converter.core.api.exceptions.ExpressionTokenizationException;
+import org.madbunny.converter.core.api.exceptions.ImpossibleToConvertException;
+import org.madbunny.converter.core.api.exceptions.IncorrectExpressionException;
+import org.madbunny.converter.core.api.exceptions.UnknownUnitsException;
+
+import java.math.BigDecimal;
+
+/**
+ * Outcome of a conversion: either a value or a typed error with its details. Unlike the exceptions thrown by
+ * UnitsConverter.convert, creating a result is cheap, so it is the preferred way to report bad user input.
+ */
+public class ConversionResult {
+    public static enum Status {
+        OK,
+        UNKNOWN_UNITS,
+        IMPOSSIBLE_TO_CONVERT,
+        EMPTY_EXPRESSION,
+        INCORRECT_EXPRESSION
+    }
+
+    // Same messages as the ones of the corresponding exceptions
+    private static final String MESSAGE_UNKNOWN_UNITS = "Unknown units";
+    private static final String MESSAGE_IMPOSSIBLE_TO_CONVERT = "Impossible to convert expressions";
+    private static final String MESSAGE_EMPTY_EXPRESSION = "An expression is empty";
+
+    private static final ConversionResult EMPTY_EXPRESSION = new ConversionResult(Status.EMPTY_EXPRESSION,
+            null, null, null, null, MESSAGE_EMPTY_EXPRESSION);
+
+    private final Status status;
+    private final BigDecimal value;
+    private final String[] unknownUnits;
+    private final String from;
+    private final String to;
+    private final String message;
+
+    private ConversionResult(Status status, BigDecimal value, String[] unknownUnits, String from, String to,
+                             String message) {
+        this.status = status;
+        this.value = value;
+        this.unknownUnits = unknownUnits;
+        this.from = from;
+        this.to = to;
+        this.message = message;
+    }
+
+    public static ConversionResult success(BigDecimal value) {
+        return new ConversionResult(Status.OK, value, null, null, null, null);
+    }
+
+    public static ConversionResult unknownUnits(String... unknownUnits) {
+        return new ConversionResult(Status.UNKNOWN_UNITS, null, unknownUnits, null, null, MESSAGE_UNKNOWN_UNITS);
+    }
+
+    public static ConversionResult impossibleToConvert(String from, String to) {
+        return new ConversionResult(Status.IMPOSSIBLE_TO_CONVERT, null, null, from, to,
+                MESSAGE_IMPOSSIBLE_TO_CONVERT);
+    }
+
+    public static ConversionResult emptyExpression() {
+        return EMPTY_EXPRESSION;
+    }
+
+    public static ConversionResult incorrectExpression(String message) {
+        return new ConversionResult(Status.INCORRECT_EXPRESSION, null, null, null, null, message);
+    }
+
+    public Status getStatus() {
+        return status;
+    }
+
+    public boolean isSuccess() {
+        return status == Status.OK;
+    }
+
+    // Present iff the status is OK
+    public BigDecimal getValue() {
+        return value;
+    }
+
+    // Present iff the status is UNKNOWN_UNITS
+    public String[] getUnknownUnits() {
+        return unknownUnits;
+    }
+
+    // Present iff the status is IMPOSSIBLE_TO_CONVERT
+    public String getFrom() {
+        return from;
+    }
+
+    // Present iff the status is IMPOSSIBLE_TO_CONVERT
+    public String getTo() {
+        return to;
+    }
+
+    // Present iff the status is not OK
+    public String getMessage() {
+        return message;
+    }
+
+    /**
+     * Bridges the result to the exception-based API.
+     * @return  the converted value if the status is OK, otherwise throws an exception describing the error.
+     */
+    public BigDecimal getOrThrow() throws
+            UnknownUnitsException,
+            ImpossibleToConvertException,
+            ExpressionTokenizationException {
+        switch (status) {
+            case OK:
+                return value;
+            case UNKNOWN_UNITS:
+                throw new UnknownUnitsException(unknownUnits);
+            case IMPOSSIBLE_TO_CONVERT:
+                throw new ImpossibleToConvertException(from, to);
+            case EMPTY_EXPRESSION:
+                throw new EmptyExpressionException();
+            case INCORRECT_EXPRESSION:
+                throw new IncorrectExpressionException(message);
+            default:
+                throw new IllegalStateException("Unexpected conversion status: " + status);
+        }
+    }
+}
@@ -0,0 +1,9 @@
+package org.madbunny.converter.core.api;
+
+/**
+ * A memory-mapped file of successful conversions shared by all the processes using it. It is opened once per process
+ * and shared by the converters of all the catalogs, entries of different catalog versions never match each other.
+ */
+public interface SharedConversionCache {
+    int getSlots();
+}
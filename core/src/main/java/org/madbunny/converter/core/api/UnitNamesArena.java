@@ -0,0 +1,21 @@
+package org.madbunny.converter.core.api;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Deduplicates unit names among databases: databases created with the same arena share a single String instance for
+ * every unit name. Names are never removed, which is fine as long as the set of catalogs is bounded.
+ */
+public class UnitNamesArena {
+    private final ConcurrentMap<String, String> names = new ConcurrentHashMap<>();
+
+    public String intern(String name) {
+        var existing = names.putIfAbsent(name, name);
+        return existing == null ? name : existing;
+    }
+
+    public int size() {
+        return names.size();
+    }
+}
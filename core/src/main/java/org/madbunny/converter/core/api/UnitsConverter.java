@@ -7,5 +7,31 @@ import org.madbunny.converter.core.api.exceptions.UnknownUnitsException;
 import java.math.BigDecimal;
 
 public interface UnitsConverter {
-    BigDecimal convert(String from, String to) throws UnknownUnitsException, ImpossibleToConvertException, ExpressionTokenizationException;
+    /**
+     * Converts without throwing on bad input: unknown units, impossible conversions and malformed expressions are
+     * reported through the returned result.
+     */
+    ConversionResult tryConvert(String from, String to);
+
+    default BigDecimal convert(String from, String to) throws
+            UnknownUnitsException,
+            ImpossibleToConvertException,
+            ExpressionTokenizationException {
+        return tryConvert(from, to).getOrThrow();
+    }
+
+    /**
+     * @return  a rough cost of the conversion in arbitrary units, at least 1. Expected to be much cheaper than the
+     *          conversion itself, so it could be used to decide whether to perform the conversion at all.
+     */
+    default long estimateCost(String from, String to) {
+        return 1;
+    }
+
+    /**
+     * @return  whether two single units could be converted to each other, cheaper than the conversion itself.
+     */
+    default boolean areConvertible(String unit, String otherUnit) {
+        return tryConvert(unit, otherUnit).isSuccess();
+    }
 }
@@ -1,7 +1,16 @@
 package org.madbunny.converter.core.api;
 
+import org.madbunny.converter.core.internal.LayeredUnitsDatabase;
+import org.madbunny.converter.core.internal.SharedConversionTable;
+import org.madbunny.converter.core.internal.UnitsConverterCaching;
+import org.madbunny.converter.core.internal.UnitsConverterCoalescing;
 import org.madbunny.converter.core.internal.UnitsConverterDummy;
 import org.madbunny.converter.core.internal.UnitsConverterOverDb;
+import org.madbunny.converter.core.internal.UnitsConverterSharedCache;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
 
 public abstract class UnitsConverterFactory {
     public static UnitsConverter createDummyConverter() {
@@ -11,4 +20,58 @@ public abstract class UnitsConverterFactory {
     public static UnitsConverter createOverDb(UnitsDatabase unitsDatabase) {
         return new UnitsConverterOverDb(unitsDatabase);
     }
+
+    /**
+     * Creates a converter over a database made by UnitsDatabaseFactory.createLayered. The precomputed structures of
+     * the converter over the base database are shared, so the memory taken is proportional to the delta only.
+     * @param baseConverter a converter created by createOverDb over the base of the layered database.
+     */
+    public static UnitsConverter createLayeredOverDb(UnitsConverter baseConverter, UnitsDatabase layeredDatabase) {
+        if (!(baseConverter instanceof UnitsConverterOverDb)) {
+            throw new IllegalArgumentException("The base converter must be created by createOverDb");
+        }
+        if (!(layeredDatabase instanceof LayeredUnitsDatabase)) {
+            throw new IllegalArgumentException("The database must be created by UnitsDatabaseFactory.createLayered");
+        }
+        return new UnitsConverterOverDb((UnitsConverterOverDb)baseConverter, (LayeredUnitsDatabase)layeredDatabase);
+    }
+
+    /**
+     * Wraps a converter so that concurrent identical conversions are computed only once.
+     * @param timeout   how long a caller waits for an identical in-flight conversion before computing it itself.
+     */
+    public static UnitsConverter createCoalescing(UnitsConverter converter, Duration timeout) {
+        return new UnitsConverterCoalescing(converter, timeout);
+    }
+
+    /**
+     * Wraps a converter so that successful conversions are remembered.
+     * @param maxSize   maximum number of conversions kept, the least requested ones are dropped first.
+     */
+    public static CachingUnitsConverter createCaching(UnitsConverter converter, int maxSize) {
+        return new UnitsConverterCaching(converter, maxSize);
+    }
+
+    /**
+     * Opens a shared conversion cache, which must be opened once per process and then shared by the converters. The
+     * file is created if it does not exist, otherwise its number of slots is used.
+     * @param slots number of slots of a new file, every one of them takes 128 bytes.
+     */
+    public static SharedConversionCache openSharedCache(Path file, int slots) throws IOException {
+        return new SharedConversionTable(file, slots);
+    }
+
+    /**
+     * Wraps a converter so that successful conversions are kept in a shared conversion cache.
+     * @param unitsDatabase the database the converter works over, entries of other catalog versions are not used.
+     * @param cache         a cache opened by openSharedCache.
+     */
+    public static UnitsConverter createSharedCaching(UnitsConverter converter, UnitsDatabase unitsDatabase,
+                                                     SharedConversionCache cache) {
+        if (!(cache instanceof SharedConversionTable)) {
+            throw new IllegalArgumentException("The shared cache must be opened by openSharedCache");
+        }
+        return new UnitsConverterSharedCache(converter, (SharedConversionTable)cache,
+                unitsDatabase.getCatalogVersion());
+    }
 }
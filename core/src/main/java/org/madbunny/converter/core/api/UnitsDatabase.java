@@ -1,8 +1,23 @@
 package org.madbunny.converter.core.api;
 
+import java.util.List;
 import java.util.function.Consumer;
+import java.util.function.Predicate;
 
 public interface UnitsDatabase {
     void traverseDirectRelations(Consumer<UnitsRelation> visitor);
     boolean containsUnit(String unit);
+
+    /**
+     * @return  at most limit units starting with the prefix and accepted by the filter, in the lexicographical order.
+     *          The number of the units checked by the filter is bounded, so with a selective filter the result may be
+     *          incomplete.
+     */
+    List<String> findUnitsByPrefix(String prefix, int limit, Predicate<String> filter);
+
+    /**
+     * @return  a hash of the database content: equal for databases with the same units and relations regardless of
+     *          their order in the source, and different otherwise.
+     */
+    String getCatalogVersion();
 }
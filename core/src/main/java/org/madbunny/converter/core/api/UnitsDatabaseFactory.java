@@ -1,10 +1,23 @@
 package org.madbunny.converter.core.api;
 
 import org.madbunny.converter.core.api.exceptions.DatabaseCreationException;
+import org.madbunny.converter.core.internal.LayeredUnitsDatabase;
 import org.madbunny.converter.core.internal.UnitsDatabaseOverCsvFile;
 
 public abstract class UnitsDatabaseFactory {
     public static UnitsDatabase createFromCsvFile(String fileName) throws DatabaseCreationException {
         return new UnitsDatabaseOverCsvFile(fileName);
     }
+
+    public static UnitsDatabase createFromCsvFile(String fileName, UnitNamesArena arena)
+            throws DatabaseCreationException {
+        return new UnitsDatabaseOverCsvFile(fileName, arena);
+    }
+
+    /**
+     * Overlays a delta database on a base one without copying any of them: lookups hit the delta first.
+     */
+    public static UnitsDatabase createLayered(UnitsDatabase base, UnitsDatabase delta) {
+        return new LayeredUnitsDatabase(base, delta);
+    }
 }
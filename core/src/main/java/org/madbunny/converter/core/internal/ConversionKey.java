@@ -0,0 +1,32 @@
+package org.madbunny.converter.core.internal;
+
+public class ConversionKey {
+    public final String from;
+    public final String to;
+    private final int hash;
+
+    public ConversionKey(String from, String to) {
+        this.from = from;
+        this.to = to;
+        this.hash = 31 * from.hashCode() + to.hashCode();
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+
+        ConversionKey that = (ConversionKey)o;
+        return hash == that.hash && from.equals(that.from) && to.equals(that.to);
+    }
+
+    @Override
+    public int hashCode() {
+        return hash;
+    }
+}
@@ -0,0 +1,93 @@
+package org.madbunny.converter.core.internal;
+
+import org.madbunny.converter.core.api.UnitsDatabase;
+import org.madbunny.converter.core.api.UnitsRelation;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+
+/**
+ * A small delta database on top of a shared base one. Neither of them is copied: lookups go to the delta first and
+ * then to the base.
+ */
+public class LayeredUnitsDatabase implements UnitsDatabase {
+    private static final String CATALOG_VERSION_ALGORITHM = "SHA-256";
+
+    private final UnitsDatabase base;
+    private final UnitsDatabase delta;
+    private final String catalogVersion;
+
+    public LayeredUnitsDatabase(UnitsDatabase base, UnitsDatabase delta) {
+        this.base = base;
+        this.delta = delta;
+        this.catalogVersion = computeCatalogVersion(base, delta);
+    }
+
+    public UnitsDatabase getBase() {
+        return base;
+    }
+
+    public UnitsDatabase getDelta() {
+        return delta;
+    }
+
+    @Override
+    public void traverseDirectRelations(Consumer<UnitsRelation> visitor) {
+        base.traverseDirectRelations(visitor);
+        delta.traverseDirectRelations(visitor);
+    }
+
+    @Override
+    public boolean containsUnit(String unit) {
+        return delta.containsUnit(unit) || base.containsUnit(unit);
+    }
+
+    // Merges the sorted results of the delta and the base
+    @Override
+    public List<String> findUnitsByPrefix(String prefix, int limit, Predicate<String> filter) {
+        var fromDelta = delta.findUnitsByPrefix(prefix, limit, filter);
+        var fromBase = base.findUnitsByPrefix(prefix, limit, filter);
+        var result = new ArrayList<String>();
+        int deltaIndex = 0;
+        int baseIndex = 0;
+        while (result.size() < limit && (deltaIndex < fromDelta.size() || baseIndex < fromBase.size())) {
+            String next;
+            if (baseIndex == fromBase.size()) {
+                next = fromDelta.get(deltaIndex++);
+            } else if (deltaIndex == fromDelta.size()) {
+                next = fromBase.get(baseIndex++);
+            } else {
+                var comparison = fromDelta.get(deltaIndex).compareTo(fromBase.get(baseIndex));
+                next = comparison <= 0 ? fromDelta.get(deltaIndex++) : fromBase.get(baseIndex++);
+                // A unit present in both of the databases
+                if (comparison == 0) {
+                    baseIndex++;
+                }
+            }
+            result.add(next);
+        }
+        return result;
+    }
+
+    @Override
+    public String getCatalogVersion() {
+        return catalogVersion;
+    }
+
+    private static String computeCatalogVersion(UnitsDatabase base, UnitsDatabase delta) {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance(CATALOG_VERSION_ALGORITHM);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+
+        var versions = base.getCatalogVersion() + "+" + delta.getCatalogVersion();
+        return UnitsDatabaseOverCsvFile.toHex(digest.digest(versions.getBytes(StandardCharsets.UTF_8)));
+    }
+}
@@ -0,0 +1,163 @@
+package org.madbunny.converter.core.internal;
+
+import org.madbunny.converter.core.api.SharedConversionCache;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Lock-free open-addressing hash table of conversion factors in a memory-mapped file, which could be shared by
+ * several processes. Keys are 128-bit hashes, the table never stores the expressions themselves. Every slot is guarded
+ * by a sequence number: a writer makes it odd by CAS, writes the slot and makes it even again, while a reader retries
+ * nothing and treats a slot changed under it as a miss. A writer which dies in the middle leaves its slot locked
+ * forever, which only costs one slot.
+ * Slot layout: int64 sequence, int64 key hash, int64 second key hash, int32 scale, int32 length of the unscaled value,
+ * then the unscaled value bytes; the file starts with a header of int64 magic, int32 layout version, int32 slots.
+ */
+public class SharedConversionTable implements SharedConversionCache {
+    static private final Logger LOG = LoggerFactory.getLogger(SharedConversionTable.class);
+
+    private static final VarHandle LONGS = MethodHandles.byteBufferViewVarHandle(long[].class,
+            ByteOrder.nativeOrder());
+    private static final long MAGIC = 0x5543534841524544L;
+    private static final int LAYOUT_VERSION = 1;
+    private static final int HEADER_SIZE = 64;
+    private static final int SLOT_SIZE = 128;
+    private static final int OFFSET_SEQUENCE = 0;
+    private static final int OFFSET_HASH = 8;
+    private static final int OFFSET_SECOND_HASH = 16;
+    private static final int OFFSET_SCALE = 24;
+    private static final int OFFSET_LENGTH = 28;
+    private static final int OFFSET_VALUE = 32;
+    private static final int MAX_VALUE_LENGTH = SLOT_SIZE - OFFSET_VALUE;
+    // A mapping could not exceed 2 GB
+    private static final int MAX_SLOTS = Integer.MAX_VALUE / SLOT_SIZE;
+    // Number of slots probed before giving up on a lookup or overwriting an occupied slot
+    private static final int MAX_PROBES = 8;
+
+    private final MappedByteBuffer buffer;
+    private final int slots;
+
+    public SharedConversionTable(Path file, int slots) throws IOException {
+        LOG.info("Creating " + this.getClass().getSimpleName() + " over file: " + file);
+        if (slots <= 0 || slots > MAX_SLOTS) {
+            throw new IllegalArgumentException(String.format("Number of slots must be in [1, %d]", MAX_SLOTS));
+        }
+
+        try (var channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE); var lock = channel.lock()) {
+            var header = channel.map(FileChannel.MapMode.READ_WRITE, 0, HEADER_SIZE).order(ByteOrder.nativeOrder());
+            if (header.getLong(0) == MAGIC && header.getInt(8) == LAYOUT_VERSION) {
+                // The file is created by another process, its size wins
+                slots = header.getInt(12);
+            } else {
+                header.putLong(0, MAGIC).putInt(8, LAYOUT_VERSION).putInt(12, slots);
+            }
+            this.slots = slots;
+            buffer = channel.map(FileChannel.MapMode.READ_WRITE, HEADER_SIZE, (long)slots * SLOT_SIZE);
+            buffer.order(ByteOrder.nativeOrder());
+        }
+        LOG.info("Creation of " + this.getClass().getSimpleName() + " complete, slots: " + slots);
+    }
+
+    @Override
+    public int getSlots() {
+        return slots;
+    }
+
+    /**
+     * @return  the factor stored for the key or null if there is none.
+     */
+    public BigDecimal get(long hash, long secondHash) {
+        for (int probe = 0; probe < MAX_PROBES; probe++) {
+            var slot = getSlotOffset(hash, probe);
+            var sequence = (long)LONGS.getAcquire(buffer, slot + OFFSET_SEQUENCE);
+            if ((sequence & 1) != 0) {
+                continue;
+            }
+
+            var slotHash = (long)LONGS.getAcquire(buffer, slot + OFFSET_HASH);
+            var slotSecondHash = (long)LONGS.getAcquire(buffer, slot + OFFSET_SECOND_HASH);
+            if (slotHash == 0 && slotSecondHash == 0) {
+                return null;
+            }
+            if (slotHash != hash || slotSecondHash != secondHash) {
+                continue;
+            }
+
+            var scale = buffer.getInt(slot + OFFSET_SCALE);
+            var length = buffer.getInt(slot + OFFSET_LENGTH);
+            if (length <= 0 || length > MAX_VALUE_LENGTH) {
+                return null;
+            }
+            var unscaledValue = new byte[length];
+            for (int i = 0; i < length; i++) {
+                unscaledValue[i] = buffer.get(slot + OFFSET_VALUE + i);
+            }
+            VarHandle.acquireFence();
+            if ((long)LONGS.getAcquire(buffer, slot + OFFSET_SEQUENCE) != sequence) {
+                return null;
+            }
+            return new BigDecimal(new BigInteger(unscaledValue), scale);
+        }
+        return null;
+    }
+
+    /**
+     * Stores the factor if it fits into a slot. Losing a race to another writer silently drops the value.
+     */
+    public void put(long hash, long secondHash, BigDecimal value) {
+        var unscaledValue = value.unscaledValue().toByteArray();
+        if (unscaledValue.length > MAX_VALUE_LENGTH) {
+            return;
+        }
+
+        var slot = findSlotToWrite(hash, secondHash);
+        if (slot < 0) {
+            return;
+        }
+        var sequence = (long)LONGS.getAcquire(buffer, slot + OFFSET_SEQUENCE);
+        if ((sequence & 1) != 0 || !LONGS.compareAndSet(buffer, slot + OFFSET_SEQUENCE, sequence, sequence + 1)) {
+            return;
+        }
+
+        LONGS.setRelease(buffer, slot + OFFSET_HASH, hash);
+        LONGS.setRelease(buffer, slot + OFFSET_SECOND_HASH, secondHash);
+        buffer.putInt(slot + OFFSET_SCALE, value.scale());
+        buffer.putInt(slot + OFFSET_LENGTH, unscaledValue.length);
+        for (int i = 0; i < unscaledValue.length; i++) {
+            buffer.put(slot + OFFSET_VALUE + i, unscaledValue[i]);
+        }
+        LONGS.setRelease(buffer, slot + OFFSET_SEQUENCE, sequence + 2);
+    }
+
+    // Returns the first empty slot or, if all the probed ones are occupied, the first of them; -1 if the key is present
+    private int findSlotToWrite(long hash, long secondHash) {
+        for (int probe = 0; probe < MAX_PROBES; probe++) {
+            var slot = getSlotOffset(hash, probe);
+            var slotHash = (long)LONGS.getAcquire(buffer, slot + OFFSET_HASH);
+            var slotSecondHash = (long)LONGS.getAcquire(buffer, slot + OFFSET_SECOND_HASH);
+            if (slotHash == hash && slotSecondHash == secondHash) {
+                return -1;
+            }
+            if (slotHash == 0 && slotSecondHash == 0) {
+                return slot;
+            }
+        }
+        return getSlotOffset(hash, 0);
+    }
+
+    private int getSlotOffset(long hash, int probe) {
+        return (int)Long.remainderUnsigned(hash + probe, slots) * SLOT_SIZE;
+    }
+}
@@ -0,0 +1,25 @@
+package org.madbunny.converter.core.internal;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+@Name("org.madbunny.converter.Tokenization")
+@Label("Expression Tokenization")
+@Description("Splitting of a units expression into the known units")
+@Category("Units Converter")
+@StackTrace(false)
+class TokenizationEvent extends Event {
+    @Label("Expression Length")
+    int expressionLength;
+
+    @Label("Units")
+    @Description("Number of units in the expression, 0 if it is incorrect")
+    int units;
+
+    @Label("Success")
+    boolean success;
+}
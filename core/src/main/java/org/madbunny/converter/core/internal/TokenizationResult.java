@@ -0,0 +1,34 @@
+package org.madbunny.converter.core.internal;
+
+import org.madbunny.converter.core.api.ConversionResult;
+
+public class TokenizationResult {
+    private final TokenizedUnitsExpression expression;
+    private final ConversionResult error;
+
+    private TokenizationResult(TokenizedUnitsExpression expression, ConversionResult error) {
+        this.expression = expression;
+        this.error = error;
+    }
+
+    static TokenizationResult success(TokenizedUnitsExpression expression) {
+        return new TokenizationResult(expression, null);
+    }
+
+    static TokenizationResult failure(ConversionResult error) {
+        return new TokenizationResult(null, error);
+    }
+
+    public boolean isSuccess() {
+        return error == null;
+    }
+
+    public TokenizedUnitsExpression getExpression() {
+        return expression;
+    }
+
+    // Present iff the tokenization failed
+    public ConversionResult getError() {
+        return error;
+    }
+}
@@ -0,0 +1,29 @@
+package org.madbunny.converter.core.internal;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+@Name("org.madbunny.converter.Traversal")
+@Label("Units Graph Traversal")
+@Description("Breadth-first search for a unit starting from another one")
+@Category("Units Converter")
+@StackTrace(false)
+class TraversalEvent extends Event {
+    @Label("Origin")
+    String origin;
+
+    @Label("Nodes Visited")
+    int nodesVisited;
+
+    @Label("Path Length")
+    @Description("Number of edges of the found path, -1 if nothing is found")
+    int pathLength;
+
+    @Label("Component Size")
+    @Description("Number of nodes reachable from the origin")
+    int componentSize;
+}
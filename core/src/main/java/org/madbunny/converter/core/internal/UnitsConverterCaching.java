@@ -0,0 +1,155 @@
+package org.madbunny.converter.core.internal;
+
+import org.madbunny.converter.core.api.CachedConversion;
+import org.madbunny.converter.core.api.CachingUnitsConverter;
+import org.madbunny.converter.core.api.ConversionResult;
+import org.madbunny.converter.core.api.UnitsConverter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Keeps successful conversions along with the number of hits of each one. Once the cache outgrows its size, only
+ * the hottest three quarters of it are kept and the hit counts are halved, so that entries which were hot long ago
+ * age out.
+ */
+public class UnitsConverterCaching implements CachingUnitsConverter {
+    static private final Logger LOG = LoggerFactory.getLogger(UnitsConverterCaching.class);
+
+    private static class Entry {
+        final ConversionResult result;
+        final AtomicLong hits;
+
+        Entry(ConversionResult result, long hits) {
+            this.result = result;
+            this.hits = new AtomicLong(hits);
+        }
+    }
+
+    private static final Comparator<Map.Entry<ConversionKey, Entry>> HOTTEST_FIRST =
+            Comparator.comparingLong((Map.Entry<ConversionKey, Entry> entry) -> entry.getValue().hits.get()).reversed();
+
+    private final UnitsConverter delegate;
+    private final int maxSize;
+    private final ConcurrentMap<ConversionKey, Entry> entries = new ConcurrentHashMap<>();
+    private final AtomicBoolean isTrimming = new AtomicBoolean();
+
+    public UnitsConverterCaching(UnitsConverter delegate, int maxSize) {
+        LOG.info("Creating " + this.getClass().getSimpleName());
+        if (maxSize <= 0) {
+            throw new IllegalArgumentException("Cache size must be positive");
+        }
+        this.delegate = delegate;
+        this.maxSize = maxSize;
+        LOG.info("Creation of " + this.getClass().getSimpleName() + " complete");
+    }
+
+    @Override
+    public ConversionResult tryConvert(String from, String to) {
+        return tryConvert(from, to, 1);
+    }
+
+    @Override
+    public long estimateCost(String from, String to) {
+        return entries.containsKey(new ConversionKey(from, to)) ? 1 : delegate.estimateCost(from, to);
+    }
+
+    @Override
+    public boolean areConvertible(String unit, String otherUnit) {
+        return delegate.areConvertible(unit, otherUnit);
+    }
+
+    @Override
+    public List<CachedConversion> getHottest(int limit) {
+        var sorted = new ArrayList<>(entries.entrySet());
+        sorted.sort(HOTTEST_FIRST);
+        var result = new ArrayList<CachedConversion>(Math.min(limit, sorted.size()));
+        for (var entry : sorted) {
+            if (result.size() >= limit) {
+                break;
+            }
+            var key = entry.getKey();
+            result.add(new CachedConversion(key.from, key.to, entry.getValue().result.getValue()));
+        }
+        return result;
+    }
+
+    @Override
+    public void preload(Collection<CachedConversion> conversions) {
+        for (var conversion : conversions) {
+            if (entries.size() >= maxSize) {
+                break;
+            }
+            var key = new ConversionKey(conversion.getFrom(), conversion.getTo());
+            entries.putIfAbsent(key, new Entry(ConversionResult.success(conversion.getValue()), 0));
+        }
+    }
+
+    @Override
+    public UnitsConverter withoutHitCounting() {
+        var caching = this;
+        return new UnitsConverter() {
+            @Override
+            public ConversionResult tryConvert(String from, String to) {
+                return caching.tryConvert(from, to, 0);
+            }
+
+            @Override
+            public long estimateCost(String from, String to) {
+                return caching.estimateCost(from, to);
+            }
+
+            @Override
+            public boolean areConvertible(String unit, String otherUnit) {
+                return caching.areConvertible(unit, otherUnit);
+            }
+        };
+    }
+
+    private ConversionResult tryConvert(String from, String to, long hits) {
+        var key = new ConversionKey(from, to);
+        var entry = entries.get(key);
+        if (entry != null) {
+            entry.hits.addAndGet(hits);
+            return entry.result;
+        }
+
+        var result = delegate.tryConvert(from, to);
+        if (result.isSuccess()) {
+            entries.put(key, new Entry(result, hits));
+            trimIfNeeded();
+        }
+        return result;
+    }
+
+    private void trimIfNeeded() {
+        if (entries.size() <= maxSize || !isTrimming.compareAndSet(false, true)) {
+            return;
+        }
+
+        try {
+            var sorted = new ArrayList<>(entries.entrySet());
+            sorted.sort(HOTTEST_FIRST);
+            var keep = maxSize - maxSize / 4;
+            for (int i = 0; i < sorted.size(); i++) {
+                var entry = sorted.get(i);
+                if (i < keep) {
+                    entry.getValue().hits.getAndUpdate((hits) -> hits / 2);
+                } else {
+                    entries.remove(entry.getKey(), entry.getValue());
+                }
+            }
+        } finally {
+            isTrimming.set(false);
+        }
+    }
+}
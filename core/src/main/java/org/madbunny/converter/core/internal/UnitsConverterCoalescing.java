@@ -0,0 +1,104 @@
+package org.madbunny.converter.core.internal;
+
+import org.madbunny.converter.core.api.ConversionResult;
+import org.madbunny.converter.core.api.UnitsConverter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Lets only one of the concurrent identical conversions run: the first caller computes the result while the others
+ * wait on the same in-flight future. Once the leader is not done within the timeout, a single one of its waiters takes
+ * over: it computes the result for the waiters of both, while the others keep waiting. So a conversion slower than
+ * the timeout is computed again at most once per timeout rather than by every waiter at once.
+ */
+public class UnitsConverterCoalescing implements UnitsConverter {
+    static private final Logger LOG = LoggerFactory.getLogger(UnitsConverterCoalescing.class);
+
+    private final UnitsConverter delegate;
+    private final long timeoutNanos;
+    private final ConcurrentMap<ConversionKey, CompletableFuture<ConversionResult>> inFlight =
+            new ConcurrentHashMap<>();
+
+    public UnitsConverterCoalescing(UnitsConverter delegate, Duration timeout) {
+        LOG.info("Creating " + this.getClass().getSimpleName());
+        this.delegate = delegate;
+        this.timeoutNanos = timeout.toNanos();
+        LOG.info("Creation of " + this.getClass().getSimpleName() + " complete");
+    }
+
+    @Override
+    public ConversionResult tryConvert(String from, String to) {
+        var key = new ConversionKey(from, to);
+        var existing = inFlight.get(key);
+        if (existing != null) {
+            return await(key, existing, from, to);
+        }
+
+        var future = new CompletableFuture<ConversionResult>();
+        existing = inFlight.putIfAbsent(key, future);
+        if (existing != null) {
+            return await(key, existing, from, to);
+        }
+        return lead(key, future, null, from, to);
+    }
+
+    @Override
+    public long estimateCost(String from, String to) {
+        return delegate.estimateCost(from, to);
+    }
+
+    @Override
+    public boolean areConvertible(String unit, String otherUnit) {
+        return delegate.areConvertible(unit, otherUnit);
+    }
+
+    // Computes the result for the waiters of the future and, if it has taken over a slow leader, for its waiters too
+    private ConversionResult lead(ConversionKey key, CompletableFuture<ConversionResult> future,
+                                  CompletableFuture<ConversionResult> slowFuture, String from, String to) {
+        try {
+            var result = delegate.tryConvert(from, to);
+            future.complete(result);
+            if (slowFuture != null) {
+                slowFuture.complete(result);
+            }
+            return result;
+        } catch (RuntimeException | Error exception) {
+            future.completeExceptionally(exception);
+            if (slowFuture != null) {
+                slowFuture.completeExceptionally(exception);
+            }
+            throw exception;
+        } finally {
+            inFlight.remove(key, future);
+        }
+    }
+
+    private ConversionResult await(ConversionKey key, CompletableFuture<ConversionResult> future, String from,
+                                   String to) {
+        while (true) {
+            try {
+                return future.get(timeoutNanos, TimeUnit.NANOSECONDS);
+            } catch (TimeoutException exception) {
+                // The future is completed by its leader or by the waiter which has taken over, whichever is first
+                var successor = new CompletableFuture<ConversionResult>();
+                if (inFlight.replace(key, future, successor)) {
+                    return lead(key, successor, future, from, to);
+                }
+            } catch (ExecutionException exception) {
+                // The leader has failed: do not make the waiters share its fate
+                return delegate.tryConvert(from, to);
+            } catch (InterruptedException exception) {
+                Thread.currentThread().interrupt();
+                return delegate.tryConvert(from, to);
+            }
+        }
+    }
+}
@@ -6,9 +6,8 @@ import java.util.Arrays;
 import java.util.HashSet;
 import java.util.Set;
 
+import org.madbunny.converter.core.api.ConversionResult;
 import org.madbunny.converter.core.api.UnitsConverter;
-import org.madbunny.converter.core.api.exceptions.ImpossibleToConvertException;
-import org.madbunny.converter.core.api.exceptions.UnknownUnitsException;
 
 public class UnitsConverterDummy implements UnitsConverter {
     private static final Set<String> distanceUnits = new HashSet<>(Arrays.asList("mm", "cm", "m", "km"));
@@ -19,13 +18,19 @@ public class UnitsConverterDummy implements UnitsConverter {
     }};
 
     @Override
-    public BigDecimal convert(String from, String to) throws UnknownUnitsException, ImpossibleToConvertException {
-        checkUnits(from, to);
-        checkPossibilityToConvert(from, to);
-        return new BigDecimal("0.01234567890123456789012");
+    public ConversionResult tryConvert(String from, String to) {
+        var unitsCheck = checkUnits(from, to);
+        if (unitsCheck != null) {
+            return unitsCheck;
+        }
+        var possibilityCheck = checkPossibilityToConvert(from, to);
+        if (possibilityCheck != null) {
+            return possibilityCheck;
+        }
+        return ConversionResult.success(new BigDecimal("0.01234567890123456789012"));
     }
 
-    private static void checkUnits(String... units) throws UnknownUnitsException {
+    private static ConversionResult checkUnits(String... units) {
         var badUnits = new ArrayList<String>();
         for (var unit : units) {
             if (!knownUnits.contains(unit)) {
@@ -35,15 +40,17 @@ public class UnitsConverterDummy implements UnitsConverter {
 
         if (!badUnits.isEmpty()) {
             var array = badUnits.toArray(new String[0]);
-            throw new UnknownUnitsException(array);
+            return ConversionResult.unknownUnits(array);
         }
+        return null;
     }
 
-    private static void checkPossibilityToConvert(String from, String to) throws ImpossibleToConvertException {
+    private static ConversionResult checkPossibilityToConvert(String from, String to) {
         boolean areDifferent = (isDistance(from) && isMass(to)) || (isMass(from) && isDistance(to));
         if (areDifferent) {
-            throw new ImpossibleToConvertException(from, to);
+            return ConversionResult.impossibleToConvert(from, to);
         }
+        return null;
     }
 
     private static boolean isDistance(String unit) {
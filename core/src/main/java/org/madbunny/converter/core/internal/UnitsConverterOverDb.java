@@ -1,10 +1,8 @@
 package org.madbunny.converter.core.internal;
 
+import org.madbunny.converter.core.api.ConversionResult;
 import org.madbunny.converter.core.api.UnitsConverter;
 import org.madbunny.converter.core.api.UnitsDatabase;
-import org.madbunny.converter.core.api.exceptions.ExpressionTokenizationException;
-import org.madbunny.converter.core.api.exceptions.ImpossibleToConvertException;
-import org.madbunny.converter.core.api.exceptions.UnknownUnitsException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -48,40 +46,97 @@ public class UnitsConverterOverDb implements UnitsConverter {
     private static final int SIGNIFICANT_DIGITS = 100;
     private static final MathContext MATH_CONTEXT = new MathContext(SIGNIFICANT_DIGITS, RoundingMode.CEILING);
 
+    private final UnitsDatabase unitsDatabase;
     private final UnitsExpressionTokenizer tokenizer;
     private final WeightedGraph unitsGraph;
 
     public UnitsConverterOverDb(UnitsDatabase unitsDatabase) {
         LOG.info("Creating " + this.getClass().getSimpleName());
+        this.unitsDatabase = unitsDatabase;
         tokenizer = new UnitsExpressionTokenizer(unitsDatabase);
-        unitsGraph = buildGraph(unitsDatabase);
+        unitsGraph = buildGraph(unitsDatabase).build();
         LOG.info("Creation of " + this.getClass().getSimpleName() + " complete");
     }
 
+    /**
+     * Creates a converter over a layered database reusing the graph of the converter over its base, so only the
+     * relations of the delta are processed.
+     */
+    public UnitsConverterOverDb(UnitsConverterOverDb baseConverter, LayeredUnitsDatabase unitsDatabase) {
+        LOG.info("Creating layered " + this.getClass().getSimpleName());
+        if (unitsDatabase.getBase() != baseConverter.unitsDatabase) {
+            throw new IllegalArgumentException("The base of the database differs from the one of the converter");
+        }
+        this.unitsDatabase = unitsDatabase;
+        tokenizer = new UnitsExpressionTokenizer(unitsDatabase);
+        unitsGraph = buildGraph(unitsDatabase.getDelta()).buildOver(baseConverter.unitsGraph);
+        LOG.info("Creation of layered " + this.getClass().getSimpleName() + " complete");
+    }
+
     @Override
-    public BigDecimal convert(String from, String to) throws
-            UnknownUnitsException,
-            ImpossibleToConvertException,
-            ExpressionTokenizationException {
+    public ConversionResult tryConvert(String from, String to) {
         var fromTokens = tokenizer.tokenize(from);
+        if (!fromTokens.isSuccess()) {
+            return fromTokens.getError();
+        }
         var toTokens = tokenizer.tokenize(to);
-        checkExpressions(fromTokens, toTokens);
+        if (!toTokens.isSuccess()) {
+            return toTokens.getError();
+        }
+        return doConvert(fromTokens.getExpression(), toTokens.getExpression());
+    }
+
+    /**
+     * The traversal of the graph dominates the cost, and it is bounded by the sizes of the components of the units
+     * being converted. Doesn't tokenize the expressions to stay cheap: unknown units are counted as isolated ones.
+     */
+    @Override
+    public long estimateCost(String from, String to) {
+        long cost = 0;
+        int tokenBegin = 0;
+        for (int i = 0; i <= from.length(); i++) {
+            if (i == from.length() || from.charAt(i) == '*' || from.charAt(i) == '/') {
+                // Spaces are removed as the tokenizer does, so they could not make a unit look unknown and cheap
+                var unit = UnitsExpressionTokenizer.removeSpaces(from.substring(tokenBegin, i));
+                cost += unitsGraph.getComponentSize(unit);
+                tokenBegin = i + 1;
+            }
+        }
+        return cost;
+    }
+
+    @Override
+    public boolean areConvertible(String unit, String otherUnit) {
+        return unitsGraph.areConnected(unit, otherUnit);
+    }
+
+    private ConversionResult doConvert(TokenizedUnitsExpression fromTokens, TokenizedUnitsExpression toTokens) {
+        var checkResult = checkExpressions(fromTokens, toTokens);
+        if (checkResult != null) {
+            return checkResult;
+        }
 
         var numerator = doConvert(fromTokens.getNumerator(), toTokens.getNumerator());
+        if (!numerator.isSuccess()) {
+            return numerator;
+        }
         if (fromTokens.getDenominator().isPresent()) {
             var fromDen = fromTokens.getDenominator().get();
             var toDen = toTokens.getDenominator().get();
             var denominator = doConvert(fromDen, toDen);
-            if (denominator.equals(BigDecimal.ZERO)) {
-                onImpossibleToConvert(fromDen, toDen);
+            if (!denominator.isSuccess()) {
+                return denominator;
             }
-            return numerator.divide(denominator, MATH_CONTEXT);
+            if (denominator.getValue().equals(BigDecimal.ZERO)) {
+                return onImpossibleToConvert(fromDen, toDen);
+            }
+            return ConversionResult.success(numerator.getValue().divide(denominator.getValue(), MATH_CONTEXT));
         }
 
         return numerator;
     }
 
-    private BigDecimal doConvert(String[] from, String[] to) throws ImpossibleToConvertException {
+    private ConversionResult doConvert(String[] from, String[] to) {
         var counter = new UnitsCounter(to);
         var coeff = BigDecimal.ONE;
         for (var fromUnit : from) {
@@ -93,21 +148,24 @@ public class UnitsConverterOverDb implements UnitsConverter {
             });
 
             if (result.isEmpty()) {
-                onImpossibleToConvert(from, to);
+                return onImpossibleToConvert(from, to);
             }
             coeff = coeff.multiply(result.get(), MATH_CONTEXT);
         }
 
         if (!counter.isEmpty()) {
-            onImpossibleToConvert(from, to);
+            return onImpossibleToConvert(from, to);
         }
 
-        return coeff;
+        return ConversionResult.success(coeff);
     }
 
-    private static void checkExpressions(TokenizedUnitsExpression from, TokenizedUnitsExpression to) throws
-            ImpossibleToConvertException {
-        compareExpressionsLengths(from.getNumerator(), to.getNumerator());
+    // Returns an error if the expressions could not be converted to each other or null otherwise
+    private static ConversionResult checkExpressions(TokenizedUnitsExpression from, TokenizedUnitsExpression to) {
+        var numeratorsCheck = compareExpressionsLengths(from.getNumerator(), to.getNumerator());
+        if (numeratorsCheck != null) {
+            return numeratorsCheck;
+        }
 
         var maybeFromDen = from.getDenominator();
         var maybeToDen = to.getDenominator();
@@ -117,27 +175,29 @@ public class UnitsConverterOverDb implements UnitsConverter {
         if (!areOfSameStatus) {
             var fromDen = maybeFromDen.orElse(new String[0]);
             var toDen = maybeToDen.orElse(new String[0]);
-            onImpossibleToConvert(fromDen, toDen);
+            return onImpossibleToConvert(fromDen, toDen);
         } else if (arePresent) {
-            compareExpressionsLengths(maybeFromDen.get(), maybeToDen.get());
+            return compareExpressionsLengths(maybeFromDen.get(), maybeToDen.get());
         }
+        return null;
     }
 
-    private static void compareExpressionsLengths(String[] from, String[] to) throws ImpossibleToConvertException {
+    private static ConversionResult compareExpressionsLengths(String[] from, String[] to) {
         if (from.length != to.length) {
-            onImpossibleToConvert(from, to);
+            return onImpossibleToConvert(from, to);
         }
+        return null;
     }
 
     private static String asMultiplication(String[] units) {
         return String.join("*", units);
     }
 
-    private static void onImpossibleToConvert(String[] from, String[] to) throws ImpossibleToConvertException {
-        throw new ImpossibleToConvertException(asMultiplication(from), asMultiplication(to));
+    private static ConversionResult onImpossibleToConvert(String[] from, String[] to) {
+        return ConversionResult.impossibleToConvert(asMultiplication(from), asMultiplication(to));
     }
 
-    private static WeightedGraph buildGraph(UnitsDatabase unitsDatabase) {
+    private static WeightedGraph.Builder buildGraph(UnitsDatabase unitsDatabase) {
         LOG.info("Creating " + WeightedGraph.class.getSimpleName());
 
         var builder = new WeightedGraph.Builder();
@@ -148,6 +208,6 @@ public class UnitsConverterOverDb implements UnitsConverter {
         });
 
         LOG.info("Creation of " + WeightedGraph.class.getSimpleName() + " complete");
-        return builder.build();
+        return builder;
     }
 }
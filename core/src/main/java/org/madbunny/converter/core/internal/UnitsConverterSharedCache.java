@@ -0,0 +1,78 @@
+package org.madbunny.converter.core.internal;
+
+import org.madbunny.converter.core.api.ConversionResult;
+import org.madbunny.converter.core.api.UnitsConverter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Keeps successful conversions in a table shared by the processes of the host, so a conversion computed by one of
+ * them is a hit for the others. Keys are hashes of the expressions seeded by the catalog version, so the entries of
+ * different catalogs, or of different versions of a catalog, never match.
+ */
+public class UnitsConverterSharedCache implements UnitsConverter {
+    static private final Logger LOG = LoggerFactory.getLogger(UnitsConverterSharedCache.class);
+
+    // Arbitrary odd constants making the two hashes of a key independent
+    private static final long SEED = 0x9E3779B97F4A7C15L;
+    private static final long SECOND_SEED = 0xC2B2AE3D27D4EB4FL;
+
+    private final UnitsConverter delegate;
+    private final SharedConversionTable table;
+    private final long seed;
+    private final long secondSeed;
+
+    public UnitsConverterSharedCache(UnitsConverter delegate, SharedConversionTable table, String catalogVersion) {
+        LOG.info("Creating " + this.getClass().getSimpleName());
+        this.delegate = delegate;
+        this.table = table;
+        this.seed = hash(SEED, catalogVersion);
+        this.secondSeed = hash(SECOND_SEED, catalogVersion);
+        LOG.info("Creation of " + this.getClass().getSimpleName() + " complete");
+    }
+
+    @Override
+    public ConversionResult tryConvert(String from, String to) {
+        var hash = hash(hash(seed, from), to);
+        var secondHash = hash(hash(secondSeed, from), to);
+        var value = table.get(hash, secondHash);
+        if (value != null) {
+            return ConversionResult.success(value);
+        }
+
+        var result = delegate.tryConvert(from, to);
+        if (result.isSuccess()) {
+            table.put(hash, secondHash, result.getValue());
+        }
+        return result;
+    }
+
+    @Override
+    public long estimateCost(String from, String to) {
+        return delegate.estimateCost(from, to);
+    }
+
+    @Override
+    public boolean areConvertible(String unit, String otherUnit) {
+        return delegate.areConvertible(unit, otherUnit);
+    }
+
+    // Must be stable across processes, so neither identity nor randomized hashes are used
+    private static long hash(long seed, String value) {
+        var result = seed ^ value.length();
+        for (int i = 0; i < value.length(); i++) {
+            result = (result ^ value.charAt(i)) * 0x100000001B3L;
+        }
+        return mix(result);
+    }
+
+    // Finalizer of MurmurHash3, spreads the bits of the FNV-like hash above
+    private static long mix(long value) {
+        value ^= value >>> 33;
+        value *= 0xFF51AFD7ED558CCDL;
+        value ^= value >>> 33;
+        value *= 0xC4CEB9FE1A85EC53L;
+        value ^= value >>> 33;
+        return value;
+    }
+}
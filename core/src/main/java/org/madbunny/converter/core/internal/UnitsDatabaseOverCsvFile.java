@@ -1,6 +1,7 @@
 package org.madbunny.converter.core.internal;
 
 import com.opencsv.CSVReader;
+import org.madbunny.converter.core.api.UnitNamesArena;
 import org.madbunny.converter.core.api.UnitsDatabase;
 import org.madbunny.converter.core.api.UnitsRelation;
 import org.madbunny.converter.core.api.exceptions.DatabaseCreationException;
@@ -11,19 +12,29 @@ import java.io.FileReader;
 import java.math.BigDecimal;
 import java.math.MathContext;
 import java.math.RoundingMode;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
 import java.util.function.Consumer;
+import java.util.function.Predicate;
 
 public class UnitsDatabaseOverCsvFile implements UnitsDatabase {
     static private final Logger LOG = LoggerFactory.getLogger(UnitsDatabaseOverCsvFile.class);
     private static final int SIGNIFICANT_DIGITS = 100;
     private static final MathContext MATH_CONTEXT = new MathContext(SIGNIFICANT_DIGITS, RoundingMode.CEILING);
+    private static final String CATALOG_VERSION_ALGORITHM = "SHA-256";
 
     private final Set<String> units = new HashSet<>();
     private final RelationsStorage storage = new RelationsStorage();
+    private final String catalogVersion;
+    private final UnitsPrefixIndex prefixIndex;
 
     private static class LineParsingContext {
         public final String fileName;
@@ -92,16 +103,29 @@ public class UnitsDatabaseOverCsvFile implements UnitsDatabase {
                 });
             });
         }
+
+        // Same as traverse, but in the lexicographical order of from and to
+        public void traverseSorted(Consumer<UnitsRelation> visitor) {
+            new TreeMap<>(storage).forEach((from, toMap) -> {
+                new TreeMap<>(toMap).forEach((to, amount) -> {
+                    visitor.accept(new UnitsRelation(from, to, amount));
+                });
+            });
+        }
     }
 
     public UnitsDatabaseOverCsvFile(String csvFileName) throws DatabaseCreationException {
+        this(csvFileName, new UnitNamesArena());
+    }
+
+    public UnitsDatabaseOverCsvFile(String csvFileName, UnitNamesArena arena) throws DatabaseCreationException {
         LOG.info("Creating " + this.getClass().getSimpleName() + " from file: " + csvFileName);
         try (var reader = new CSVReader(new FileReader(csvFileName))) {
             String[] line;
             int lineNumber = 1;
             while ((line = reader.readNext()) != null) {
                 var ctx = new LineParsingContext(csvFileName, lineNumber, line);
-                var unitsRelation = parseLine(ctx);
+                var unitsRelation = parseLine(ctx, arena);
                 var areSameUnits = unitsRelation.from.equals(unitsRelation.to);
                 if (areSameUnits && !unitsRelation.amount.equals(BigDecimal.ONE)) {
                     onError(ctx, String.format("Conversion between the same units is not 1 but: \"%s\"",
@@ -119,7 +143,9 @@ public class UnitsDatabaseOverCsvFile implements UnitsDatabase {
             LOG.error("Creation of " + this.getClass().getSimpleName() + " failed");
             throw new DatabaseCreationException(e.getMessage());
         }
-        LOG.info("Creation of " + this.getClass().getSimpleName() + " complete");
+        catalogVersion = computeCatalogVersion();
+        prefixIndex = new UnitsPrefixIndex(units);
+        LOG.info("Creation of " + this.getClass().getSimpleName() + " complete, catalog version: " + catalogVersion);
     }
 
     @Override
@@ -132,13 +158,51 @@ public class UnitsDatabaseOverCsvFile implements UnitsDatabase {
         return units.contains(unit);
     }
 
-    private static UnitsRelation parseLine(LineParsingContext ctx) throws DatabaseCreationException {
+    @Override
+    public List<String> findUnitsByPrefix(String prefix, int limit, Predicate<String> filter) {
+        return prefixIndex.find(prefix, limit, filter);
+    }
+
+    @Override
+    public String getCatalogVersion() {
+        return catalogVersion;
+    }
+
+    private String computeCatalogVersion() throws DatabaseCreationException {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance(CATALOG_VERSION_ALGORITHM);
+        } catch (NoSuchAlgorithmException e) {
+            throw new DatabaseCreationException(e.getMessage());
+        }
+
+        for (var unit : new TreeSet<>(units)) {
+            digest.update((unit + "\n").getBytes(StandardCharsets.UTF_8));
+        }
+        storage.traverseSorted((relation) -> {
+            var line = String.join(",", relation.from, relation.to, relation.amount.toPlainString()) + "\n";
+            digest.update(line.getBytes(StandardCharsets.UTF_8));
+        });
+        return toHex(digest.digest());
+    }
+
+    static String toHex(byte[] bytes) {
+        var result = new StringBuilder(bytes.length * 2);
+        for (var b : bytes) {
+            result.append(Character.forDigit((b >> 4) & 0xF, 16));
+            result.append(Character.forDigit(b & 0xF, 16));
+        }
+        return result.toString();
+    }
+
+    private static UnitsRelation parseLine(LineParsingContext ctx, UnitNamesArena arena)
+            throws DatabaseCreationException {
         if (ctx.line.length != 3) {
             onError(ctx, ctx.line.length < 3 ? "Not enough values to unpack" : "Too many value to unpack");
         }
 
-        var from = parseNonEmptyString(ctx, ctx.line[0], false);
-        var to = parseNonEmptyString(ctx, ctx.line[1], false);
+        var from = arena.intern(parseNonEmptyString(ctx, ctx.line[0], false));
+        var to = arena.intern(parseNonEmptyString(ctx, ctx.line[1], false));
         var amount = parseAmount(ctx, ctx.line[2]);
         return new UnitsRelation(from, to, amount);
     }
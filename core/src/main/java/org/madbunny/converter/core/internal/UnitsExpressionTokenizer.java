@@ -1,9 +1,7 @@
 package org.madbunny.converter.core.internal;
 
+import org.madbunny.converter.core.api.ConversionResult;
 import org.madbunny.converter.core.api.UnitsDatabase;
-import org.madbunny.converter.core.api.exceptions.EmptyExpressionException;
-import org.madbunny.converter.core.api.exceptions.IncorrectExpressionException;
-import org.madbunny.converter.core.api.exceptions.UnknownUnitsException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -23,38 +21,71 @@ public class UnitsExpressionTokenizer {
         LOG.info("Creation of " + this.getClass().getSimpleName() + " complete");
     }
 
-    public TokenizedUnitsExpression tokenize(String expression) throws
-            EmptyExpressionException,
-            IncorrectExpressionException,
-            UnknownUnitsException {
-        var withoutSpaces = expression.replaceAll("\\s+", "");
+    public TokenizationResult tokenize(String expression) {
+        var event = new TokenizationEvent();
+        event.begin();
+        var result = doTokenize(expression);
+        event.end();
+        if (event.shouldCommit()) {
+            event.expressionLength = expression.length();
+            event.success = result.isSuccess();
+            if (result.isSuccess()) {
+                var tokens = result.getExpression();
+                event.units = tokens.getNumerator().length + tokens.getDenominator().map((units) -> units.length)
+                        .orElse(0);
+            }
+            event.commit();
+        }
+        return result;
+    }
+
+    /**
+     * Removes the same whitespace as \s of the regular expressions, which is not a part of any unit name.
+     */
+    static String removeSpaces(String expression) {
+        StringBuilder result = null;
+        for (int i = 0; i < expression.length(); i++) {
+            var c = expression.charAt(i);
+            var isSpace = c == ' ' || c == '\t' || c == '\n' || c == '\u000B' || c == '\f' || c == '\r';
+            if (isSpace && result == null) {
+                result = new StringBuilder(expression.length()).append(expression, 0, i);
+            } else if (!isSpace && result != null) {
+                result.append(c);
+            }
+        }
+        return result == null ? expression : result.toString();
+    }
+
+    private TokenizationResult doTokenize(String expression) {
+        var withoutSpaces = removeSpaces(expression);
         var mulExpressions = withoutSpaces.split(TOKEN_DIV);
         if (mulExpressions.length == 0) {
-            throw new EmptyExpressionException();
+            return TokenizationResult.failure(ConversionResult.emptyExpression());
         }
 
         var divTokens = mulExpressions.length - 1;
         if (divTokens > MAX_DIV_TOKENS) {
-            throw new IncorrectExpressionException(String.format("Too many division tokens: %d", divTokens));
+            var message = String.format("Too many division tokens: %d", divTokens);
+            return TokenizationResult.failure(ConversionResult.incorrectExpression(message));
         }
 
         var numeratorAndDenominator = new ArrayList<String[]>();
         for (var expr : mulExpressions) {
             var units = expr.split(TOKEN_MUL);
             if (units.length == 0) {
-                throw new EmptyExpressionException();
+                return TokenizationResult.failure(ConversionResult.emptyExpression());
             }
 
             for (var unit : units) {
                 if (!unitsDatabase.containsUnit(unit)) {
-                    throw new UnknownUnitsException(unit);
+                    return TokenizationResult.failure(ConversionResult.unknownUnits(unit));
                 }
             }
 
             numeratorAndDenominator.add(units);
         }
 
-        return buildTokenized(numeratorAndDenominator);
+        return TokenizationResult.success(buildTokenized(numeratorAndDenominator));
     }
 
     private static TokenizedUnitsExpression buildTokenized(ArrayList<String[]> numeratorAndDenominator) {
@@ -0,0 +1,59 @@
+package org.madbunny.converter.core.internal;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.function.Predicate;
+
+/**
+ * Immutable index of unit names for prefix lookups. Names are kept in a single sorted array, so all the names with a
+ * given prefix form a contiguous range found by two binary searches. That takes no memory besides the array itself,
+ * unlike a pointer-based trie.
+ */
+public class UnitsPrefixIndex {
+    // Bounds the work of a lookup with a selective filter, e.g. a short prefix over a large catalog
+    private static final int MAX_SCANNED_NAMES = 4096;
+
+    private final String[] names;
+
+    public UnitsPrefixIndex(Collection<String> names) {
+        this.names = names.toArray(new String[0]);
+        Arrays.sort(this.names);
+    }
+
+    /**
+     * @return  at most limit names starting with the prefix and accepted by the filter, in the lexicographical order.
+     *          Only the first MAX_SCANNED_NAMES names with the prefix are checked, so the result may miss accepted
+     *          names which go after them.
+     */
+    public List<String> find(String prefix, int limit, Predicate<String> filter) {
+        var result = new ArrayList<String>();
+        var begin = lowerBound(prefix);
+        var end = (int)Math.min(names.length, (long)begin + MAX_SCANNED_NAMES);
+        for (int i = begin; i < end && result.size() < limit; i++) {
+            if (!names[i].startsWith(prefix)) {
+                break;
+            }
+            if (filter.test(names[i])) {
+                result.add(names[i]);
+            }
+        }
+        return result;
+    }
+
+    // Index of the first name which is not less than the value
+    private int lowerBound(String value) {
+        int begin = 0;
+        int end = names.length;
+        while (begin < end) {
+            var middle = (begin + end) >>> 1;
+            if (names[middle].compareTo(value) < 0) {
+                begin = middle + 1;
+            } else {
+                end = middle;
+            }
+        }
+        return begin;
+    }
+}
@@ -16,7 +16,18 @@ public class WeightedGraph {
         }
 
         WeightedGraph build() {
-            return new WeightedGraph(edges);
+            return new WeightedGraph(edges, null);
+        }
+
+        /**
+         * Builds a graph which consists of the edges of the builder on top of the base graph. The base is shared, not
+         * copied, so the size of the result is proportional to the number of the added edges only.
+         */
+        WeightedGraph buildOver(WeightedGraph base) {
+            if (base.base != null) {
+                throw new IllegalArgumentException("Only a single layer over a base graph is supported");
+            }
+            return new WeightedGraph(edges, base);
         }
     }
 
@@ -24,11 +35,14 @@ public class WeightedGraph {
         public final String from;
         public final String to;
         public final BigDecimal weight;
+        // Number of edges from the origin of the traversal
+        private final int depth;
 
-        private Edge(String from, String to, BigDecimal weight) {
+        private Edge(String from, String to, BigDecimal weight, int depth) {
             this.from = from;
             this.to = to;
             this.weight = weight;
+            this.depth = depth;
         }
     }
 
@@ -69,9 +83,158 @@ public class WeightedGraph {
     private static final Set<TargetNodeInfo> EMPTY_NEIGHBORS = new HashSet<>();
 
     private final Map<String, Set<TargetNodeInfo>> edges;
+    // Null unless the graph is a layer over another one
+    private final WeightedGraph base;
+    // Id of the connected component of every node and sizes of the components by their ids
+    private final Map<String, Integer> componentIds = new HashMap<>();
+    private final List<Integer> componentSizes = new ArrayList<>();
+    // Components of the base which are joined with the ones of the layer: ids of the base ones to the ids of the layer
+    private final Map<Integer, Integer> joinedBaseComponents = new HashMap<>();
 
-    private WeightedGraph(Map<String, Set<TargetNodeInfo>> edges) {
+    private WeightedGraph(Map<String, Set<TargetNodeInfo>> edges, WeightedGraph base) {
         this.edges = edges;
+        this.base = base;
+        findComponents();
+    }
+
+    /**
+     * @return  number of nodes reachable from the node including itself: an upper bound of the nodes visited by a
+     *          traversal started from it.
+     */
+    public int getComponentSize(String nodeId) {
+        var componentId = componentIds.get(nodeId);
+        if (componentId != null) {
+            return componentSizes.get(componentId);
+        }
+        if (base == null) {
+            return 1;
+        }
+
+        var baseComponentId = base.componentIds.get(nodeId);
+        if (baseComponentId == null) {
+            return 1;
+        }
+        var joinedId = joinedBaseComponents.get(baseComponentId);
+        return joinedId != null ? componentSizes.get(joinedId) : base.componentSizes.get(baseComponentId);
+    }
+
+    // Whether there is a path between the nodes
+    public boolean areConnected(String nodeId, String otherNodeId) {
+        if (nodeId.equals(otherNodeId)) {
+            return true;
+        }
+        var componentKey = getComponentKey(nodeId);
+        return componentKey != null && componentKey.equals(getComponentKey(otherNodeId));
+    }
+
+    // Own component ids are non-negative, ids of the base components not joined with the own ones are negative
+    private Integer getComponentKey(String nodeId) {
+        var componentId = componentIds.get(nodeId);
+        if (componentId != null || base == null) {
+            return componentId;
+        }
+
+        var baseComponentId = base.componentIds.get(nodeId);
+        if (baseComponentId == null) {
+            return null;
+        }
+        var joinedId = joinedBaseComponents.get(baseComponentId);
+        return joinedId != null ? joinedId : -baseComponentId - 1;
+    }
+
+    private void findComponents() {
+        // Components formed by the own edges only
+        var ownSizes = new ArrayList<Integer>();
+        for (var node : edges.keySet()) {
+            if (componentIds.containsKey(node)) {
+                continue;
+            }
+
+            var componentId = ownSizes.size();
+            var size = 0;
+            Queue<String> toVisit = new ArrayDeque<>();
+            componentIds.put(node, componentId);
+            toVisit.add(node);
+            while (!toVisit.isEmpty()) {
+                var current = toVisit.remove();
+                // Nodes of the base are counted as parts of their base components
+                if (base == null || !base.componentIds.containsKey(current)) {
+                    size++;
+                }
+                for (var neighbor : edges.getOrDefault(current, EMPTY_NEIGHBORS)) {
+                    if (componentIds.putIfAbsent(neighbor.nodeId, componentId) == null) {
+                        toVisit.add(neighbor.nodeId);
+                    }
+                }
+            }
+            ownSizes.add(size);
+        }
+
+        if (base == null) {
+            componentSizes.addAll(ownSizes);
+        } else {
+            joinBaseComponents(ownSizes);
+        }
+    }
+
+    /**
+     * Own components sharing nodes with the same base component form a single component along with it. Finds such
+     * groups with a union-find over the own components (ids [0, ownSizes.size())) followed by the touched base ones.
+     */
+    private void joinBaseComponents(List<Integer> ownSizes) {
+        var parents = new ArrayList<Integer>();
+        var sizes = new ArrayList<Integer>(ownSizes);
+        for (int i = 0; i < ownSizes.size(); i++) {
+            parents.add(i);
+        }
+
+        var baseToUnionId = new HashMap<Integer, Integer>();
+        componentIds.forEach((node, ownId) -> {
+            var baseId = base.componentIds.get(node);
+            if (baseId == null) {
+                return;
+            }
+
+            var unionId = baseToUnionId.get(baseId);
+            if (unionId == null) {
+                unionId = parents.size();
+                baseToUnionId.put(baseId, unionId);
+                parents.add(unionId);
+                sizes.add(base.componentSizes.get(baseId));
+            }
+            union(parents, sizes, ownId, unionId);
+        });
+
+        // Renumber the roots, so the ids of the components are dense
+        var rootToComponentId = new HashMap<Integer, Integer>();
+        for (int i = 0; i < parents.size(); i++) {
+            var root = find(parents, i);
+            if (!rootToComponentId.containsKey(root)) {
+                rootToComponentId.put(root, componentSizes.size());
+                componentSizes.add(sizes.get(root));
+            }
+        }
+        componentIds.replaceAll((node, ownId) -> rootToComponentId.get(find(parents, ownId)));
+        baseToUnionId.forEach((baseId, unionId) -> {
+            joinedBaseComponents.put(baseId, rootToComponentId.get(find(parents, unionId)));
+        });
+    }
+
+    private static int find(List<Integer> parents, int id) {
+        while (parents.get(id) != id) {
+            parents.set(id, parents.get(parents.get(id)));
+            id = parents.get(id);
+        }
+        return id;
+    }
+
+    private static void union(List<Integer> parents, List<Integer> sizes, int first, int second) {
+        var firstRoot = find(parents, first);
+        var secondRoot = find(parents, second);
+        if (firstRoot != secondRoot) {
+            parents.set(secondRoot, firstRoot);
+            sizes.set(firstRoot, sizes.get(firstRoot) + sizes.get(secondRoot));
+        }
     }
 
     /**
@@ -82,39 +245,66 @@ public class WeightedGraph {
      *                  during the traversal or an empty Optional if the traversal was not interrupted.
     */
     public Optional<BigDecimal> traverseBreadthFirst(String origin, MathContext mathCtx, Function<Edge, TraversalState> visitor) {
+        var event = new TraversalEvent();
+        event.begin();
+        var nodesVisited = 0;
+        var pathLength = -1;
+        Optional<BigDecimal> result = Optional.empty();
+
         // Weights for paths from origin to nodes in the map
         var pathWeight = new HashMap<String, BigDecimal>(){{
             put(origin, BigDecimal.ONE);
         }};
         Queue<Edge> toVisit = new ArrayDeque<>(){{
-            add(new Edge(null, origin, BigDecimal.ONE));
+            add(new Edge(null, origin, BigDecimal.ONE, 0));
         }};
 
         while (!toVisit.isEmpty()) {
             var edge = toVisit.peek();
             toVisit.remove();
+            nodesVisited++;
 
             // Skip the origin
-            if (edge.from != null) {
-                var prevWeight = pathWeight.get(edge.from);
-                var newWeight = prevWeight.multiply(edge.weight, mathCtx);
-                var state = visitor.apply(edge);
-                if (state == TraversalState.STOP) {
-                    return Optional.of(newWeight);
-                }
-                pathWeight.put(edge.to, newWeight);
+            if (edge.from != null && visitor.apply(edge) == TraversalState.STOP) {
+                result = Optional.of(pathWeight.get(edge.to));
+                pathLength = edge.depth;
+                break;
             }
 
-            var neighbors = edges.getOrDefault(edge.to, EMPTY_NEIGHBORS);
-            for (var neighbor : neighbors) {
-                if (pathWeight.containsKey(neighbor.nodeId)) {
-                    // The neighbor is already visited
-                    continue;
-                }
-                toVisit.add(new Edge(edge.to, neighbor.nodeId, neighbor.edgeWeight));
+            addNeighbors(edge, pathWeight, toVisit, mathCtx);
+        }
+
+        event.end();
+        if (event.shouldCommit()) {
+            event.origin = origin;
+            event.nodesVisited = nodesVisited;
+            event.pathLength = pathLength;
+            event.componentSize = getComponentSize(origin);
+            event.commit();
+        }
+        return result;
+    }
+
+    /**
+     * Own edges go first, so they take precedence over the edges of the base. A node is marked as visited once it is
+     * queued, so the weight of the path to it is set exactly once, even if an own edge conflicts with a base one.
+     */
+    private void addNeighbors(Edge edge, Map<String, BigDecimal> pathWeight, Queue<Edge> toVisit,
+                              MathContext mathCtx) {
+        var nodeId = edge.to;
+        var weight = pathWeight.get(nodeId);
+        var neighbors = edges.getOrDefault(nodeId, EMPTY_NEIGHBORS);
+        for (var neighbor : neighbors) {
+            if (pathWeight.containsKey(neighbor.nodeId)) {
+                // The neighbor is already visited
+                continue;
             }
+            pathWeight.put(neighbor.nodeId, weight.multiply(neighbor.edgeWeight, mathCtx));
+            toVisit.add(new Edge(nodeId, neighbor.nodeId, neighbor.edgeWeight, edge.depth + 1));
         }
 
-        return Optional.empty();
+        if (base != null) {
+            base.addNeighbors(edge, pathWeight, toVisit, mathCtx);
+        }
     }
 }
@@ -0,0 +1,66 @@
+package org.madbunny.converter.core.internal;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.madbunny.converter.core.api.UnitsDatabase;
+import org.madbunny.converter.core.api.UnitsDatabaseFactory;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class LayeredUnitsDatabaseTest {
+    @TempDir
+    Path directory;
+
+    @Test
+    void findsUnitsOfBothDatabasesInOrder() throws Exception {
+        var database = createLayered("m,cm,100\nkm,m,1000\n", "mm,m,0.001\nmi,km,1.609344\n");
+        assertEquals(List.of("cm", "km", "m", "mi", "mm"), database.findUnitsByPrefix("", 10, (unit) -> true));
+        // m is present in both of the databases
+        assertEquals(List.of("m", "mi", "mm"), database.findUnitsByPrefix("m", 10, (unit) -> true));
+        assertEquals(List.of("km"), database.findUnitsByPrefix("k", 10, (unit) -> true));
+        assertEquals(List.of(), database.findUnitsByPrefix("x", 10, (unit) -> true));
+    }
+
+    @Test
+    void appliesLimitAndFilterToTheMergedResult() throws Exception {
+        var database = createLayered("m,cm,100\nkm,m,1000\n", "mm,m,0.001\nmi,km,1.609344\n");
+        assertEquals(List.of("cm", "km"), database.findUnitsByPrefix("", 2, (unit) -> true));
+        assertEquals(List.of("m", "mm"), database.findUnitsByPrefix("m", 10, (unit) -> !unit.equals("mi")));
+        assertEquals(List.of(), database.findUnitsByPrefix("", 0, (unit) -> true));
+    }
+
+    @Test
+    void containsUnitsOfBothDatabases() throws Exception {
+        var database = createLayered("m,cm,100\n", "mi,m,1609.344\n");
+        assertTrue(database.containsUnit("cm"));
+        assertTrue(database.containsUnit("mi"));
+        assertFalse(database.containsUnit("km"));
+    }
+
+    @Test
+    void versionDependsOnTheDelta() throws Exception {
+        var base = createDatabase("base.csv", "m,cm,100\n");
+        var first = UnitsDatabaseFactory.createLayered(base, createDatabase("first.csv", "mi,m,1609.344\n"));
+        var same = UnitsDatabaseFactory.createLayered(base, createDatabase("same.csv", "mi,m,1609.344\n"));
+        var other = UnitsDatabaseFactory.createLayered(base, createDatabase("other.csv", "mi,m,1609\n"));
+        assertEquals(first.getCatalogVersion(), same.getCatalogVersion());
+        assertFalse(first.getCatalogVersion().equals(other.getCatalogVersion()));
+        assertFalse(first.getCatalogVersion().equals(base.getCatalogVersion()));
+    }
+
+    private UnitsDatabase createLayered(String base, String delta) throws Exception {
+        return UnitsDatabaseFactory.createLayered(createDatabase("base.csv", base), createDatabase("delta.csv", delta));
+    }
+
+    private UnitsDatabase createDatabase(String fileName, String content) throws Exception {
+        var file = directory.resolve(fileName);
+        Files.writeString(file, content);
+        return UnitsDatabaseFactory.createFromCsvFile(file.toString());
+    }
+}
@@ -0,0 +1,138 @@
+package org.madbunny.converter.core.internal;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class SharedConversionTableTest {
+    @TempDir
+    Path directory;
+
+    @Test
+    void returnsStoredValues() throws Exception {
+        var table = new SharedConversionTable(directory.resolve("table"), 64);
+        table.put(1, 2, new BigDecimal("1609.344"));
+        table.put(3, 4, new BigDecimal("-0.0001"));
+        assertEquals(new BigDecimal("1609.344"), table.get(1, 2));
+        assertEquals(new BigDecimal("-0.0001"), table.get(3, 4));
+        assertNull(table.get(1, 3));
+        assertNull(table.get(5, 6));
+    }
+
+    @Test
+    void keepsTheFirstValueOfAKey() throws Exception {
+        var table = new SharedConversionTable(directory.resolve("table"), 64);
+        table.put(1, 2, BigDecimal.ONE);
+        table.put(1, 2, BigDecimal.TEN);
+        assertEquals(BigDecimal.ONE, table.get(1, 2));
+    }
+
+    @Test
+    void probesNextSlotsOnCollisions() throws Exception {
+        var table = new SharedConversionTable(directory.resolve("table"), 64);
+        table.put(10, 1, BigDecimal.valueOf(1));
+        table.put(10, 2, BigDecimal.valueOf(2));
+        // Its own slot is taken by the previous key
+        table.put(11, 3, BigDecimal.valueOf(3));
+        // Probing wraps around the end of the table
+        table.put(63, 4, BigDecimal.valueOf(4));
+        table.put(63, 5, BigDecimal.valueOf(5));
+        assertEquals(BigDecimal.valueOf(1), table.get(10, 1));
+        assertEquals(BigDecimal.valueOf(2), table.get(10, 2));
+        assertEquals(BigDecimal.valueOf(3), table.get(11, 3));
+        assertEquals(BigDecimal.valueOf(4), table.get(63, 4));
+        assertEquals(BigDecimal.valueOf(5), table.get(63, 5));
+    }
+
+    @Test
+    void overwritesTheFirstProbedSlotWhenAllAreTaken() throws Exception {
+        var table = new SharedConversionTable(directory.resolve("table"), 64);
+        for (int i = 1; i <= 9; i++) {
+            table.put(10, i, BigDecimal.valueOf(i));
+        }
+        assertNull(table.get(10, 1));
+        for (int i = 2; i <= 9; i++) {
+            assertEquals(BigDecimal.valueOf(i), table.get(10, i));
+        }
+    }
+
+    @Test
+    void skipsValuesWhichDoNotFitIntoASlot() throws Exception {
+        var table = new SharedConversionTable(directory.resolve("table"), 64);
+        var fitting = new BigDecimal(BigInteger.ONE.shiftLeft(8 * 96 - 2), 10);
+        var tooLong = new BigDecimal(BigInteger.ONE.shiftLeft(8 * 96), 10);
+        table.put(1, 1, fitting);
+        table.put(2, 2, tooLong);
+        assertEquals(fitting, table.get(1, 1));
+        assertNull(table.get(2, 2));
+    }
+
+    @Test
+    void sharesEntriesThroughTheFile() throws Exception {
+        var file = directory.resolve("table");
+        var first = new SharedConversionTable(file, 64);
+        first.put(1, 2, new BigDecimal("0.3048"));
+
+        var second = new SharedConversionTable(file, 128);
+        assertEquals(64, second.getSlots());
+        assertEquals(new BigDecimal("0.3048"), second.get(1, 2));
+        second.put(3, 4, BigDecimal.TEN);
+        assertEquals(BigDecimal.TEN, first.get(3, 4));
+    }
+
+    @Test
+    void rejectsInvalidNumberOfSlots() {
+        assertThrows(IllegalArgumentException.class, () -> new SharedConversionTable(directory.resolve("a"), 0));
+        assertThrows(IllegalArgumentException.class,
+                () -> new SharedConversionTable(directory.resolve("b"), Integer.MAX_VALUE));
+    }
+
+    @Test
+    void readersNeverSeeTornValues() throws Exception {
+        // All the keys compete for the single slot
+        var table = new SharedConversionTable(directory.resolve("table"), 1);
+        var stopped = new AtomicBoolean();
+        var failure = new AtomicReference<String>();
+        var threads = new ArrayList<Thread>();
+        for (int t = 0; t < 2; t++) {
+            threads.add(new Thread(() -> {
+                while (!stopped.get()) {
+                    var key = ThreadLocalRandom.current().nextInt(1, 1000);
+                    table.put(key, key, valueOf(key));
+                }
+            }));
+            threads.add(new Thread(() -> {
+                while (!stopped.get()) {
+                    var key = ThreadLocalRandom.current().nextInt(1, 1000);
+                    var value = table.get(key, key);
+                    if (value != null && !value.equals(valueOf(key))) {
+                        failure.compareAndSet(null, "Key " + key + " has value " + value);
+                    }
+                }
+            }));
+        }
+        threads.forEach(Thread::start);
+        Thread.sleep(500);
+        stopped.set(true);
+        for (var thread : threads) {
+            thread.join();
+        }
+        assertNull(failure.get());
+    }
+
+    // Values of different keys differ both in length and in scale
+    private static BigDecimal valueOf(int key) {
+        return new BigDecimal(BigInteger.valueOf(key).pow(1 + key % 9), key % 7);
+    }
+}
@@ -0,0 +1,53 @@
+package org.madbunny.converter.core.internal;
+
+import org.junit.jupiter.api.Test;
+import org.madbunny.converter.core.api.CachedConversion;
+import org.madbunny.converter.core.api.ConversionResult;
+import org.madbunny.converter.core.api.UnitsConverter;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class UnitsConverterCachingTest {
+    @Test
+    void hottestConversionsComeFirst() {
+        var caching = new UnitsConverterCaching((from, to) -> ConversionResult.success(BigDecimal.ONE), 100);
+        convert(caching, "a", "b", 1);
+        convert(caching, "c", "d", 3);
+        convert(caching, "e", "f", 2);
+        assertEquals(List.of("c->d", "e->f"), describe(caching.getHottest(2)));
+    }
+
+    @Test
+    void requestsWithoutHitCountingUseTheCacheOnly() {
+        var calls = new AtomicInteger();
+        var caching = new UnitsConverterCaching((from, to) -> {
+            calls.incrementAndGet();
+            return ConversionResult.success(BigDecimal.ONE);
+        }, 100);
+        var uncounted = caching.withoutHitCounting();
+        convert(caching, "a", "b", 2);
+        convert(uncounted, "c", "d", 10);
+        convert(uncounted, "a", "b", 10);
+        convert(caching, "e", "f", 1);
+
+        assertEquals(3, calls.get());
+        assertEquals(List.of("a->b", "e->f", "c->d"), describe(caching.getHottest(3)));
+    }
+
+    private static void convert(UnitsConverter converter, String from, String to, int times) {
+        for (int i = 0; i < times; i++) {
+            converter.tryConvert(from, to);
+        }
+    }
+
+    private static List<String> describe(List<CachedConversion> conversions) {
+        return conversions.stream()
+                .map((conversion) -> conversion.getFrom() + "->" + conversion.getTo())
+                .collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,78 @@
+package org.madbunny.converter.core.internal;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.madbunny.converter.core.api.ConversionResult;
+import org.madbunny.converter.core.api.UnitsConverter;
+import org.madbunny.converter.core.api.UnitsConverterFactory;
+import org.madbunny.converter.core.api.UnitsDatabase;
+import org.madbunny.converter.core.api.UnitsDatabaseFactory;
+
+import java.math.BigDecimal;
+import java.math.MathContext;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class UnitsConverterOverDbTest {
+    // Paths through inverted relations accumulate rounding errors
+    private static final MathContext PRECISION = new MathContext(20);
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void deltaRelationOverridesTheBaseOne() throws Exception {
+        var base = createDatabase("base.csv", "m,cm,100\ncm,mm,10\n");
+        var delta = createDatabase("delta.csv", "m,cm,1000\n");
+        var converter = UnitsConverterFactory.createLayeredOverDb(UnitsConverterFactory.createOverDb(base),
+                UnitsDatabaseFactory.createLayered(base, delta));
+
+        assertConverts(converter, "m", "cm", "1000");
+        assertConverts(converter, "m", "mm", "10000");
+        assertConverts(converter, "mm", "m", "0.0001");
+        assertConverts(converter, "cm", "m", "0.001");
+    }
+
+    @Test
+    void deltaJoinsUnitsOfTheBase() throws Exception {
+        var base = createDatabase("base.csv", "km,m,1000\nmi,ft,5280\nmin,s,60\n");
+        var delta = createDatabase("delta.csv", "mi,m,1609.344\n");
+        var baseConverter = UnitsConverterFactory.createOverDb(base);
+        var converter = UnitsConverterFactory.createLayeredOverDb(baseConverter,
+                UnitsDatabaseFactory.createLayered(base, delta));
+
+        assertTrue(converter.areConvertible("mi", "km"));
+        assertFalse(converter.areConvertible("mi", "s"));
+        assertConverts(converter, "ft", "m", "0.3048");
+        assertEquals(ConversionResult.Status.IMPOSSIBLE_TO_CONVERT, converter.tryConvert("mi", "s").getStatus());
+        // The converter over the base is not affected by the delta
+        assertFalse(baseConverter.areConvertible("mi", "km"));
+    }
+
+    @Test
+    void costEstimateIgnoresSpacesInUnits() throws Exception {
+        var converter = UnitsConverterFactory.createOverDb(createDatabase("units.csv", "km,m,1000\nm,cm,100\n"));
+        assertEquals(3, converter.estimateCost("km", "m"));
+        assertEquals(3, converter.estimateCost(" k m ", "m"));
+        assertEquals(3, converter.estimateCost("k\tm", "m"));
+        assertEquals(6, converter.estimateCost("k m * c m", "m * m"));
+        assertEquals(1, converter.estimateCost("unknown", "m"));
+    }
+
+    private static void assertConverts(UnitsConverter converter, String from, String to, String expected) {
+        var result = converter.tryConvert(from, to);
+        assertTrue(result.isSuccess(), from + " -> " + to + ": " + result.getStatus());
+        assertEquals(0, new BigDecimal(expected).compareTo(result.getValue().round(PRECISION)), from + " -> " + to + ": "
+                + result.getValue());
+    }
+
+    private UnitsDatabase createDatabase(String fileName, String content) throws Exception {
+        var file = directory.resolve(fileName);
+        Files.writeString(file, content);
+        return UnitsDatabaseFactory.createFromCsvFile(file.toString());
+    }
+}
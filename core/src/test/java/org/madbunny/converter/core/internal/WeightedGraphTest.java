@@ -0,0 +1,115 @@
+package org.madbunny.converter.core.internal;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.math.MathContext;
+import java.util.HashMap;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class WeightedGraphTest {
+    private static final MathContext MATH_CONTEXT = MathContext.DECIMAL128;
+
+    @Test
+    void layerJoinsComponentsOfTheBase() {
+        var base = new WeightedGraph.Builder();
+        addRelation(base, "м", "км", "0.001");
+        addRelation(base, "м", "см", "100");
+        addRelation(base, "миля", "фут", "5280");
+        addRelation(base, "фут", "дюйм", "12");
+        addRelation(base, "мин", "с", "60");
+        addRelation(base, "ч", "мин", "60");
+        addRelation(base, "сут", "ч", "24");
+        var baseGraph = base.build();
+        assertFalse(baseGraph.areConnected("миля", "км"));
+        assertEquals(3, baseGraph.getComponentSize("км"));
+        assertEquals(3, baseGraph.getComponentSize("миля"));
+
+        var delta = new WeightedGraph.Builder();
+        addRelation(delta, "миля", "м", "1609.344");
+        var graph = delta.buildOver(baseGraph);
+        assertTrue(graph.areConnected("миля", "км"));
+        assertTrue(graph.areConnected("дюйм", "см"));
+        assertFalse(graph.areConnected("миля", "с"));
+        assertEquals(6, graph.getComponentSize("км"));
+        assertEquals(6, graph.getComponentSize("миля"));
+        assertEquals(4, graph.getComponentSize("с"));
+
+        // The base graph is shared, not changed
+        assertFalse(baseGraph.areConnected("миля", "км"));
+        assertEquals(3, baseGraph.getComponentSize("км"));
+    }
+
+    @Test
+    void layerAddsNewComponents() {
+        var base = new WeightedGraph.Builder();
+        addRelation(base, "м", "см", "100");
+        var delta = new WeightedGraph.Builder();
+        addRelation(delta, "байт", "бит", "8");
+        var graph = delta.buildOver(base.build());
+        assertTrue(graph.areConnected("байт", "бит"));
+        assertFalse(graph.areConnected("байт", "м"));
+        assertEquals(2, graph.getComponentSize("бит"));
+        assertEquals(2, graph.getComponentSize("см"));
+        assertEquals(1, graph.getComponentSize("неизвестно"));
+    }
+
+    @Test
+    void ownEdgesTakePrecedenceOverEdgesOfTheBase() {
+        var base = new WeightedGraph.Builder();
+        addRelation(base, "m", "cm", "100");
+        addRelation(base, "cm", "mm", "10");
+        var delta = new WeightedGraph.Builder();
+        addRelation(delta, "m", "cm", "1000");
+        var graph = delta.buildOver(base.build());
+
+        assertEquals(0, new BigDecimal("1000").compareTo(findPathWeight(graph, "m", "cm").orElseThrow()));
+        // The path goes through the overridden edge, so the answers are consistent
+        assertEquals(0, new BigDecimal("10000").compareTo(findPathWeight(graph, "m", "mm").orElseThrow()));
+        assertEquals(0, new BigDecimal("0.0001").compareTo(findPathWeight(graph, "mm", "m").orElseThrow()));
+    }
+
+    @Test
+    void everyNodeIsVisitedOnce() {
+        var base = new WeightedGraph.Builder();
+        addRelation(base, "m", "cm", "100");
+        addRelation(base, "cm", "mm", "10");
+        addRelation(base, "m", "mm", "1000");
+        var delta = new WeightedGraph.Builder();
+        addRelation(delta, "m", "cm", "1000");
+        var graph = delta.buildOver(base.build());
+
+        var visits = new HashMap<String, Integer>();
+        graph.traverseBreadthFirst("m", MATH_CONTEXT, (edge) -> {
+            visits.merge(edge.to, 1, Integer::sum);
+            return WeightedGraph.TraversalState.CONTINUE;
+        });
+        assertEquals(1, visits.get("cm").intValue());
+        assertEquals(1, visits.get("mm").intValue());
+    }
+
+    @Test
+    void traversalIsNotInterruptedWithoutTarget() {
+        var builder = new WeightedGraph.Builder();
+        addRelation(builder, "m", "cm", "100");
+        addRelation(builder, "s", "ms", "1000");
+        assertTrue(findPathWeight(builder.build(), "m", "ms").isEmpty());
+    }
+
+    // Relations are added in both directions, as the converter does
+    private static void addRelation(WeightedGraph.Builder builder, String from, String to, String weight) {
+        var value = new BigDecimal(weight);
+        builder.withEdge(from, to, value);
+        builder.withEdge(to, from, BigDecimal.ONE.divide(value, MATH_CONTEXT));
+    }
+
+    private static Optional<BigDecimal> findPathWeight(WeightedGraph graph, String from, String to) {
+        return graph.traverseBreadthFirst(from, MATH_CONTEXT, (edge) -> edge.to.equals(to)
+                ? WeightedGraph.TraversalState.STOP
+                : WeightedGraph.TraversalState.CONTINUE);
+    }
+}
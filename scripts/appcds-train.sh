@@ -0,0 +1,28 @@
+#!/bin/sh
+# Creates an AppCDS archive of the classes loaded by a training run of the server.
+# Usage: scripts/appcds-train.sh units.csv [recorded.jsonl] [archive.jsa]
+# Then: java -XX:SharedArchiveFile=archive.jsa -jar server/target/unit-converter-server-1.0-SNAPSHOT.jar units.csv
+set -e
+
+JAR=${JAR:-server/target/unit-converter-server-1.0-SNAPSHOT.jar}
+UNITS=${1:?"Path to data file is not provided"}
+WARMUP_LOG=$2
+ARCHIVE=${3:-unit-converter-server.jsa}
+
+TRAINING_ARGS="converter.training=true"
+if [ -n "$WARMUP_LOG" ]; then
+    TRAINING_ARGS="$TRAINING_ARGS converter.warmup.log=$WARMUP_LOG"
+fi
+
+HAS_DYNAMIC_ARCHIVE=$(java -XX:+PrintFlagsFinal -version 2>/dev/null | grep -c ArchiveClassesAtExit || true)
+if [ "$HAS_DYNAMIC_ARCHIVE" -gt 0 ]; then
+    # JDK 13+: a dynamic archive is written when the training run exits
+    java -XX:ArchiveClassesAtExit="$ARCHIVE" -jar "$JAR" "$UNITS" $TRAINING_ARGS
+else
+    # JDK 11: dump the list of the loaded classes, then the archive out of it
+    CLASS_LIST=$(mktemp)
+    java -XX:DumpLoadedClassList="$CLASS_LIST" -jar "$JAR" "$UNITS" $TRAINING_ARGS
+    java -Xshare:dump -XX:SharedClassListFile="$CLASS_LIST" -XX:SharedArchiveFile="$ARCHIVE" -cp "$JAR"
+    rm -f "$CLASS_LIST"
+fi
+echo "AppCDS archive: $ARCHIVE"
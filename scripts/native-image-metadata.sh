@@ -0,0 +1,22 @@
+#!/bin/sh
+# Records the reachability metadata of the native executable (reflection, resources, proxies, JNI) by running a
+# training run of the server under the tracing agent of GraalVM. The agent merges what it has seen into the directory
+# native-image picks the metadata up from, so the result is reviewed and committed along with the code.
+# Needs a GraalVM JDK on the PATH. The jar is built with the native profile, so it has the same dependencies as the
+# native executable: mvn -Pnative -DskipNativeBuild=true package
+# Usage: scripts/native-image-metadata.sh units.csv [recorded.jsonl]
+set -e
+
+JAR=${JAR:-server/target/unit-converter-server-1.0-SNAPSHOT.jar}
+METADATA_DIR=server/src/main/resources/META-INF/native-image/org.madbunny/unit-converter-server
+UNITS=${1:?"Path to data file is not provided"}
+WARMUP_LOG=$2
+
+# The binary protocol listener is started as well, so the metadata of Netty is recorded too
+TRAINING_ARGS="converter.training=true converter.binary.port=9090"
+if [ -n "$WARMUP_LOG" ]; then
+    TRAINING_ARGS="$TRAINING_ARGS converter.warmup.log=$WARMUP_LOG"
+fi
+
+java -agentlib:native-image-agent=config-merge-dir="$METADATA_DIR" -jar "$JAR" "$UNITS" $TRAINING_ARGS
+echo "Reachability metadata: $METADATA_DIR"
@@ -0,0 +1,58 @@
+#!/bin/sh
+# Measures the time from the launch of the server to the first successful GET /ready, for the plain jar, the jar with
+# the AppCDS archive of scripts/appcds-train.sh and the native executable of the native profile, if they exist.
+# The server listens on port 80, so the script needs the permissions to bind it.
+# Usage: scripts/startup-benchmark.sh units.csv [runs]
+set -e
+
+JAR=${JAR:-server/target/unit-converter-server-1.0-SNAPSHOT.jar}
+ARCHIVE=${ARCHIVE:-unit-converter-server.jsa}
+NATIVE=${NATIVE:-server/target/unit-converter-server}
+UNITS=${1:?"Path to data file is not provided"}
+RUNS=${2:-5}
+READY_URL=http://localhost:80/ready
+
+now_millis() {
+    date +%s%3N
+}
+
+# Prints the startup time of the command in milliseconds
+measure() {
+    begin=$(now_millis)
+    "$@" > /dev/null 2>&1 &
+    pid=$!
+    until curl -sf -o /dev/null "$READY_URL"; do
+        if ! kill -0 "$pid" 2>/dev/null; then
+            echo "The server has exited" >&2
+            return 1
+        fi
+        sleep 0.01
+    done
+    end=$(now_millis)
+    kill "$pid"
+    wait "$pid" 2>/dev/null || true
+    echo $((end - begin))
+}
+
+run_mode() {
+    name=$1
+    shift
+    times=""
+    i=0
+    while [ "$i" -lt "$RUNS" ]; do
+        times="$times $(measure "$@")"
+        i=$((i + 1))
+    done
+    echo "$times" | tr ' ' '\n' | grep . | sort -n | awk -v name="$name" '
+        { values[NR] = $1; sum += $1 }
+        END { printf "%s: median %d ms, mean %d ms, min %d ms, max %d ms\n",
+              name, values[int((NR + 1) / 2)], sum / NR, values[1], values[NR] }'
+}
+
+run_mode "jar" java -jar "$JAR" "$UNITS"
+if [ -f "$ARCHIVE" ]; then
+    run_mode "jar+appcds" java -XX:SharedArchiveFile="$ARCHIVE" -jar "$JAR" "$UNITS"
+fi
+if [ -x "$NATIVE" ]; then
+    run_mode "native" "$NATIVE" "$UNITS"
+fi
@@ -1,9 +1,14 @@
 module org.madbunny.converter.server {
     requires org.madbunny.converter.core;
+    requires org.madbunny.converter.client;
     requires jooby;
     requires com.google.gson;
     requires slf4j.api;
+    requires jdk.jfr;
+    requires java.net.http;
     requires org.apache.logging.log4j;
-
-    opens org.madbunny.converter.server.handler;
+    requires io.netty.buffer;
+    requires io.netty.codec;
+    requires io.netty.common;
+    requires io.netty.transport;
 }
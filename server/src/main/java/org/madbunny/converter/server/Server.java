@@ -1,62 +1,301 @@
 package org.madbunny.converter.server;
 
-import com.google.gson.Gson;
+import com.typesafe.config.Config;
 import io.jooby.Jooby;
-import io.jooby.MediaType;
 import io.jooby.ServerOptions;
+import org.madbunny.converter.core.api.SharedConversionCache;
 import org.madbunny.converter.core.api.UnitsConverter;
 import org.madbunny.converter.core.api.UnitsConverterFactory;
 import org.madbunny.converter.core.api.UnitsDatabase;
-import org.madbunny.converter.core.api.UnitsDatabaseFactory;
+import org.madbunny.converter.server.admission.AdmissionController;
+import org.madbunny.converter.server.admission.ArrivalTrackingExecutor;
+import org.madbunny.converter.server.binary.BinaryServer;
+import org.madbunny.converter.server.cache.WarmCacheStore;
+import org.madbunny.converter.server.catalog.CatalogRegistry;
+import org.madbunny.converter.server.catalog.CatalogSpec;
 import org.madbunny.converter.server.handler.Convert;
+import org.madbunny.converter.server.handler.Ready;
+import org.madbunny.converter.server.handler.SlowRequestLog;
+import org.madbunny.converter.server.handler.Units;
+import org.madbunny.converter.server.warmup.Readiness;
+import org.madbunny.converter.server.warmup.TrainingRun;
+import org.madbunny.converter.server.warmup.Warmup;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
 import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
 
 public class Server {
     static private final Logger LOG = LoggerFactory.getLogger(Server.class);
     static private final int DEFAULT_PORT = 80;
+    static private final Duration COALESCING_TIMEOUT = Duration.ofSeconds(1);
+    // The binary protocol listener is started only if its port is configured, e.g. converter.binary.port=9090
+    static private final String CONFIG_BINARY_PORT = "converter.binary.port";
+
+    // Admission control bounds the total estimated cost of the conversions in flight, see AdmissionController
+    static private final String CONFIG_ADMISSION_ENABLED = "converter.admission.enabled";
+    static private final String CONFIG_ADMISSION_INITIAL_LIMIT = "converter.admission.initialLimit";
+    static private final String CONFIG_ADMISSION_MIN_LIMIT = "converter.admission.minLimit";
+    static private final String CONFIG_ADMISSION_MAX_LIMIT = "converter.admission.maxLimit";
+    static private final String CONFIG_ADMISSION_EXPENSIVE_COST = "converter.admission.expensiveCost";
+    static private final String CONFIG_ADMISSION_EXPENSIVE_SHARE = "converter.admission.expensiveShare";
+    static private final long DEFAULT_ADMISSION_INITIAL_LIMIT = 1000;
+    static private final long DEFAULT_ADMISSION_MIN_LIMIT = 100;
+    static private final long DEFAULT_ADMISSION_MAX_LIMIT = 100_000;
+    static private final long DEFAULT_ADMISSION_EXPENSIVE_COST = 64;
+    static private final double DEFAULT_ADMISSION_EXPENSIVE_SHARE = 0.5;
+
+    // Comma-separated names of the catalogs which are loaded on the first request and unloaded once idle
+    static private final String CONFIG_CATALOG_LAZY = "converter.catalog.lazy";
+    static private final String CONFIG_CATALOG_IDLE_TIMEOUT = "converter.catalog.idleTimeout";
+    static private final Duration DEFAULT_CATALOG_IDLE_TIMEOUT = Duration.ofMinutes(30);
+
+    // The hottest conversions of every catalog are snapshotted to the directory and preloaded on the next start
+    static private final String CONFIG_WARM_CACHE_DIR = "converter.warmCache.dir";
+    static private final String CONFIG_WARM_CACHE_INTERVAL_SECONDS = "converter.warmCache.intervalSeconds";
+    static private final String CONFIG_WARM_CACHE_SIZE = "converter.warmCache.size";
+    static private final long DEFAULT_WARM_CACHE_INTERVAL_SECONDS = 60;
+    static private final long DEFAULT_WARM_CACHE_SIZE = 10_000;
+
+    // Successful conversions are shared with the other processes using the same file
+    static private final String CONFIG_SHARED_CACHE_FILE = "converter.sharedCache.file";
+    static private final String CONFIG_SHARED_CACHE_SLOTS = "converter.sharedCache.slots";
+    static private final long DEFAULT_SHARED_CACHE_SLOTS = 1 << 16;
+
+    // A sample of the conversions slower than the threshold is logged, nothing is logged unless it is configured
+    static private final String CONFIG_SLOW_LOG_THRESHOLD_MILLIS = "converter.slowLog.thresholdMillis";
+    static private final String CONFIG_SLOW_LOG_SAMPLE_RATE = "converter.slowLog.sampleRate";
+    static private final double DEFAULT_SLOW_LOG_SAMPLE_RATE = 0.1;
+
+    // A recorded request log (JSONL of {from,to}) replayed before /ready reports the server as ready
+    static private final String CONFIG_WARMUP_LOG = "converter.warmup.log";
+    static private final String CONFIG_WARMUP_MAX_SECONDS = "converter.warmup.maxSeconds";
+    static private final long DEFAULT_WARMUP_MAX_SECONDS = 60;
+
+    // Requests which do not fit into the queue of the worker threads are answered with 503 right away
+    static private final String CONFIG_WORKER_QUEUE_CAPACITY = "converter.worker.queueCapacity";
+    static private final long DEFAULT_WORKER_QUEUE_CAPACITY = 4096;
+
+    // A training run exits once the server is started and warmed up, see TrainingRun
+    static private final String CONFIG_TRAINING = "converter.training";
 
     public static void main(final String[] args) {
         Jooby.runApp(getJoobyArguments(args), server -> {
-            var unitsDatabase = createUnitsDatabase(args);
-            var converter = createUnitsConverter(unitsDatabase);
-            var jsonParser = new Gson();
+            var warmCache = createWarmCacheStore(server.getConfig());
+            var sharedCache = openSharedCache(server.getConfig());
+            var catalogs = createCatalogRegistry(args, server.getConfig(), warmCache, sharedCache);
             var serverOptions = createServerOptions();
+            var admissionController = createAdmissionController(server.getConfig());
+            var readiness = new Readiness();
+            var warmupToken = Warmup.generateToken();
 
             server.setServerOptions(serverOptions);
-            server.decoder(MediaType.json, (ctx, type) -> {
-                var body = ctx.body().value();
-                return jsonParser.fromJson(body, type);
-            });
-            server.mvc(new Convert(converter));
+            setWorker(server, serverOptions);
+            server.mvc(new Convert(catalogs, admissionController, createSlowRequestLog(server.getConfig()),
+                    warmupToken));
+            server.mvc(new Units(catalogs));
+            server.mvc(new Ready(readiness));
+            server.onStop(catalogs);
+            startWarmCacheSnapshots(server, warmCache, catalogs);
+            startBinaryServer(server, catalogs, admissionController);
+            startWarmup(server, serverOptions, readiness, warmupToken);
+            if (server.getConfig().hasPath(CONFIG_TRAINING) && server.getConfig().getBoolean(CONFIG_TRAINING)) {
+                server.onStarted(() -> TrainingRun.start(serverOptions.getPort(), catalogs, readiness));
+            }
             LOG.info(String.format("Starting the universal converter server on port: %d", serverOptions.getPort()));
         });
     }
 
-    private static UnitsDatabase createUnitsDatabase(String[] args) {
-        var dbFileName = getDatabaseFileName(args);
-        UnitsDatabase db = null;
+    /* Same pool as the default one of Jooby, but the admission control could see how long requests wait for it, and
+     * its queue is bounded, so under overload requests are rejected at once instead of waiting for their 503 in it.
+     * Jooby answers a request it could not dispatch through the error handler of the exception */
+    private static void setWorker(Jooby server, ServerOptions serverOptions) {
+        var threads = serverOptions.getWorkerThreads();
+        var queueCapacity = getLong(server.getConfig(), CONFIG_WORKER_QUEUE_CAPACITY, DEFAULT_WORKER_QUEUE_CAPACITY);
+        var worker = new ArrivalTrackingExecutor(new ThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(Math.toIntExact(queueCapacity))));
+        server.setWorker(worker);
+        server.error(RejectedExecutionException.class, Convert::onWorkerRejected);
+        server.onStop(worker);
+    }
+
+    private static void startBinaryServer(Jooby server, CatalogRegistry catalogs,
+                                          AdmissionController admissionController) {
+        var config = server.getConfig();
+        if (!config.hasPath(CONFIG_BINARY_PORT)) {
+            return;
+        }
+
+        try {
+            var binaryServer = new BinaryServer(config.getInt(CONFIG_BINARY_PORT), catalogs, admissionController);
+            server.onStop(binaryServer);
+        } catch (Exception exception) {
+            onStartupError(exception.getMessage());
+        }
+    }
+
+    // The warmup runs in the background once the server is started, the server is not ready until it is over
+    private static void startWarmup(Jooby server, ServerOptions serverOptions, Readiness readiness,
+                                    String warmupToken) {
+        var config = server.getConfig();
+        if (!config.hasPath(CONFIG_WARMUP_LOG)) {
+            readiness.setReady();
+            return;
+        }
+
+        Warmup warmup = null;
         try {
-            db = UnitsDatabaseFactory.createFromCsvFile(dbFileName);
+            var maxDuration = Duration.ofSeconds(getLong(config, CONFIG_WARMUP_MAX_SECONDS,
+                    DEFAULT_WARMUP_MAX_SECONDS));
+            warmup = new Warmup(Path.of(config.getString(CONFIG_WARMUP_LOG)), maxDuration, warmupToken);
         } catch (Exception exception) {
             onStartupError(exception.getMessage());
         }
-        return db;
+
+        var finalWarmup = warmup;
+        server.onStarted(() -> {
+            var thread = new Thread(() -> {
+                try {
+                    finalWarmup.run(serverOptions.getPort());
+                } finally {
+                    readiness.setReady();
+                }
+            }, "warmup");
+            thread.setDaemon(true);
+            thread.start();
+        });
     }
 
-    private static UnitsConverter createUnitsConverter(UnitsDatabase unitsDatabase) {
-        UnitsConverter converter = null;
+    private static WarmCacheStore createWarmCacheStore(Config config) {
+        if (!config.hasPath(CONFIG_WARM_CACHE_DIR)) {
+            return null;
+        }
+
+        WarmCacheStore warmCache = null;
         try {
-            converter = UnitsConverterFactory.createOverDb(unitsDatabase);
+            var size = getLong(config, CONFIG_WARM_CACHE_SIZE, DEFAULT_WARM_CACHE_SIZE);
+            warmCache = new WarmCacheStore(Path.of(config.getString(CONFIG_WARM_CACHE_DIR)), Math.toIntExact(size));
         } catch (Exception exception) {
             onStartupError(exception.getMessage());
         }
-        return converter;
+        return warmCache;
+    }
+
+    private static void startWarmCacheSnapshots(Jooby server, WarmCacheStore warmCache, CatalogRegistry catalogs) {
+        if (warmCache == null) {
+            return;
+        }
+
+        var interval = getLong(server.getConfig(), CONFIG_WARM_CACHE_INTERVAL_SECONDS,
+                DEFAULT_WARM_CACHE_INTERVAL_SECONDS);
+        warmCache.start(catalogs, Duration.ofSeconds(interval));
+        server.onStop(warmCache);
+    }
+
+    // The file is locked while being opened, so it is opened once and shared by catalogs loaded concurrently
+    private static SharedConversionCache openSharedCache(Config config) {
+        if (!config.hasPath(CONFIG_SHARED_CACHE_FILE)) {
+            return null;
+        }
+
+        SharedConversionCache sharedCache = null;
+        try {
+            var slots = getLong(config, CONFIG_SHARED_CACHE_SLOTS, DEFAULT_SHARED_CACHE_SLOTS);
+            sharedCache = UnitsConverterFactory.openSharedCache(Path.of(config.getString(CONFIG_SHARED_CACHE_FILE)),
+                    Math.toIntExact(slots));
+        } catch (Exception exception) {
+            onStartupError(exception.getMessage());
+        }
+        return sharedCache;
+    }
+
+    private static CatalogRegistry createCatalogRegistry(String[] args, Config config, WarmCacheStore warmCache,
+                                                         SharedConversionCache sharedCache) {
+        var catalogsArgument = getCatalogsArgument(args);
+        Set<String> lazyNames = new HashSet<>();
+        if (config.hasPath(CONFIG_CATALOG_LAZY)) {
+            for (var name : config.getString(CONFIG_CATALOG_LAZY).split(",")) {
+                lazyNames.add(name.strip());
+            }
+        }
+        var idleTimeout = config.hasPath(CONFIG_CATALOG_IDLE_TIMEOUT)
+                ? config.getDuration(CONFIG_CATALOG_IDLE_TIMEOUT)
+                : DEFAULT_CATALOG_IDLE_TIMEOUT;
+
+        CatalogRegistry catalogs = null;
+        try {
+            var specs = CatalogSpec.parse(catalogsArgument, lazyNames);
+            catalogs = new CatalogRegistry(specs, idleTimeout, (catalogName, unitsDatabase, rawConverter) ->
+                    decorateUnitsConverter(catalogName, unitsDatabase, rawConverter, warmCache, sharedCache));
+        } catch (Exception exception) {
+            onStartupError(exception.getMessage());
+        }
+        return catalogs;
+    }
+
+    /* Produces caching -> shared caching -> coalescing -> raw converter, the optional caches being the cheapest first.
+     * The cache is preloaded from the warm cache snapshot */
+    private static UnitsConverter decorateUnitsConverter(String catalogName, UnitsDatabase unitsDatabase,
+                                                         UnitsConverter rawConverter, WarmCacheStore warmCache,
+                                                         SharedConversionCache sharedCache) throws IOException {
+        var converter = UnitsConverterFactory.createCoalescing(rawConverter, COALESCING_TIMEOUT);
+        if (sharedCache != null) {
+            converter = UnitsConverterFactory.createSharedCaching(converter, unitsDatabase, sharedCache);
+        }
+        if (warmCache == null) {
+            return converter;
+        }
+
+        var cachingConverter = UnitsConverterFactory.createCaching(converter, warmCache.getSize());
+        warmCache.preload(catalogName, unitsDatabase.getCatalogVersion(), cachingConverter);
+        return cachingConverter;
+    }
+
+    private static AdmissionController createAdmissionController(Config config) {
+        var enabled = !config.hasPath(CONFIG_ADMISSION_ENABLED) || config.getBoolean(CONFIG_ADMISSION_ENABLED);
+        if (!enabled) {
+            LOG.info("Admission control is disabled");
+            return AdmissionController.unlimited();
+        }
+
+        return new AdmissionController(
+                getLong(config, CONFIG_ADMISSION_INITIAL_LIMIT, DEFAULT_ADMISSION_INITIAL_LIMIT),
+                getLong(config, CONFIG_ADMISSION_MIN_LIMIT, DEFAULT_ADMISSION_MIN_LIMIT),
+                getLong(config, CONFIG_ADMISSION_MAX_LIMIT, DEFAULT_ADMISSION_MAX_LIMIT),
+                getLong(config, CONFIG_ADMISSION_EXPENSIVE_COST, DEFAULT_ADMISSION_EXPENSIVE_COST),
+                config.hasPath(CONFIG_ADMISSION_EXPENSIVE_SHARE)
+                        ? config.getDouble(CONFIG_ADMISSION_EXPENSIVE_SHARE)
+                        : DEFAULT_ADMISSION_EXPENSIVE_SHARE
+        );
+    }
+
+    private static SlowRequestLog createSlowRequestLog(Config config) {
+        if (!config.hasPath(CONFIG_SLOW_LOG_THRESHOLD_MILLIS)) {
+            return SlowRequestLog.disabled();
+        }
+
+        var threshold = Duration.ofMillis(config.getLong(CONFIG_SLOW_LOG_THRESHOLD_MILLIS));
+        var sampleRate = config.hasPath(CONFIG_SLOW_LOG_SAMPLE_RATE)
+                ? config.getDouble(CONFIG_SLOW_LOG_SAMPLE_RATE)
+                : DEFAULT_SLOW_LOG_SAMPLE_RATE;
+        return new SlowRequestLog(threshold, sampleRate);
+    }
+
+    private static long getLong(Config config, String path, long defaultValue) {
+        return config.hasPath(path) ? config.getLong(path) : defaultValue;
     }
 
-    private static String getDatabaseFileName(String[] args) {
+    // Either a single units file or a list of catalogs, see CatalogSpec.parse
+    private static String getCatalogsArgument(String[] args) {
         if (args.length == 0) {
             onStartupError("Path to data file is not provided");
         }
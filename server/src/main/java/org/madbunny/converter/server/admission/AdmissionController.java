@@ -0,0 +1,201 @@
+package org.madbunny.converter.server.admission;
+
+import java.util.Arrays;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Bounds the total estimated cost of the requests being processed. The bound adapts to the observed latency in an
+ * AIMD manner, once per sampling window: it grows additively while the latency stays close to the usual one, and
+ * shrinks multiplicatively once it degrades. Latency is judged per cost class (powers of two of the cost), comparing
+ * the median latency per unit of cost in the window with a slowly moving baseline of the same class, so neither cheap
+ * failures nor cache hits make the real conversions look slow. Latency is measured from the arrival of a request, so
+ * the time spent in queues, where it grows under overload, is taken into account.
+ * Expensive requests may use only a share of the bound, so cheap ones keep flowing when the expensive ones are
+ * throttled.
+ */
+public class AdmissionController {
+    public static class Permit {
+        private final long cost;
+        private final long arrivalNanos;
+
+        private Permit(long cost, long arrivalNanos) {
+            this.cost = cost;
+            this.arrivalNanos = arrivalNanos;
+        }
+    }
+
+    // Latency samples of a single cost class within the current window
+    private static class CostClass {
+        final double[] samples = new double[MAX_CLASS_SAMPLES];
+        int count;
+        long seen;
+        // Usual latency per unit of cost, NaN until the first window with enough samples
+        double baselineNanosPerCost = Double.NaN;
+
+        void add(double nanosPerCost) {
+            seen++;
+            if (count < samples.length) {
+                samples[count++] = nanosPerCost;
+                return;
+            }
+            // Reservoir sampling keeps the window sample uniform however many requests there are
+            var index = ThreadLocalRandom.current().nextLong(seen);
+            if (index < samples.length) {
+                samples[(int)index] = nanosPerCost;
+            }
+        }
+
+        double median() {
+            var sorted = Arrays.copyOf(samples, count);
+            Arrays.sort(sorted);
+            return sorted[count / 2];
+        }
+
+        void reset() {
+            count = 0;
+            seen = 0;
+        }
+    }
+
+    private static final long WINDOW_NANOS = 100_000_000;
+    private static final int COST_CLASSES = 16;
+    private static final int MIN_CLASS_SAMPLES = 8;
+    private static final int MAX_CLASS_SAMPLES = 256;
+    // Median latency per unit of cost above the baseline multiplied by this factor is treated as a sign of overload
+    private static final double LATENCY_TOLERANCE = 2.0;
+    private static final double DECREASE_FACTOR = 0.9;
+    // Weight of the median of a window in the baseline of its class
+    private static final double BASELINE_SMOOTHING = 0.1;
+    // Same while overloaded, so the baseline could still recover after a lasting change of the workload
+    private static final double OVERLOADED_BASELINE_SMOOTHING = 0.01;
+
+    private final boolean enabled;
+    private final double minLimit;
+    private final double maxLimit;
+    private final long expensiveCostThreshold;
+    private final double expensiveShare;
+    private final AtomicLong inFlightCost = new AtomicLong();
+
+    private volatile double limit;
+    // Guarded by this
+    private final CostClass[] costClasses = new CostClass[COST_CLASSES];
+    private long windowStartNanos = System.nanoTime();
+    private long windowCost;
+
+    /**
+     * @param expensiveCostThreshold    requests with a greater cost are admitted only while the cost in flight fits
+     *                                  into expensiveShare of the limit.
+     */
+    public AdmissionController(long initialLimit, long minLimit, long maxLimit, long expensiveCostThreshold,
+                               double expensiveShare) {
+        this(true, initialLimit, minLimit, maxLimit, expensiveCostThreshold, expensiveShare);
+    }
+
+    private AdmissionController(boolean enabled, long initialLimit, long minLimit, long maxLimit,
+                                long expensiveCostThreshold, double expensiveShare) {
+        this.enabled = enabled;
+        this.limit = initialLimit;
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.expensiveCostThreshold = expensiveCostThreshold;
+        this.expensiveShare = expensiveShare;
+        for (int i = 0; i < costClasses.length; i++) {
+            costClasses[i] = new CostClass();
+        }
+    }
+
+    // Admits everything
+    public static AdmissionController unlimited() {
+        return new AdmissionController(false, Long.MAX_VALUE, Long.MAX_VALUE, Long.MAX_VALUE, Long.MAX_VALUE, 1.0);
+    }
+
+    /**
+     * Same as tryAcquire(cost, arrivalNanos) for a request which has just arrived.
+     */
+    public Permit tryAcquire(long cost) {
+        return tryAcquire(cost, System.nanoTime());
+    }
+
+    /**
+     * @param arrivalNanos  System.nanoTime() at the arrival of the request, the latency is measured from it.
+     * @return              a permit which must be released once the request is processed or null if the request
+     *                      must be rejected.
+     */
+    public Permit tryAcquire(long cost, long arrivalNanos) {
+        cost = Math.max(1, cost);
+        if (!enabled) {
+            return new Permit(cost, 0);
+        }
+
+        var bound = cost > expensiveCostThreshold ? limit * expensiveShare : limit;
+        while (true) {
+            var current = inFlightCost.get();
+            // A single request is always admitted, otherwise one more expensive than the bound would never run
+            if (current > 0 && current + cost > bound) {
+                return null;
+            }
+            if (inFlightCost.compareAndSet(current, current + cost)) {
+                return new Permit(cost, arrivalNanos);
+            }
+        }
+    }
+
+    public void release(Permit permit) {
+        release(permit, System.nanoTime());
+    }
+
+    void release(Permit permit, long nowNanos) {
+        if (!enabled) {
+            return;
+        }
+
+        inFlightCost.addAndGet(-permit.cost);
+        onSample(nowNanos, nowNanos - permit.arrivalNanos, permit.cost);
+    }
+
+    public long getLimit() {
+        return (long)limit;
+    }
+
+    private synchronized void onSample(long now, long latencyNanos, long cost) {
+        var costClass = Math.min(COST_CLASSES - 1, 63 - Long.numberOfLeadingZeros(cost));
+        costClasses[costClass].add((double)latencyNanos / cost);
+        windowCost += cost;
+        if (now - windowStartNanos >= WINDOW_NANOS) {
+            closeWindow();
+            windowStartNanos = now;
+            windowCost = 0;
+        }
+    }
+
+    // The limit changes at most once per window, however many samples it has
+    private void closeWindow() {
+        var isOverloaded = false;
+        for (var costClass : costClasses) {
+            if (costClass.count >= MIN_CLASS_SAMPLES && !Double.isNaN(costClass.baselineNanosPerCost)
+                    && costClass.median() > costClass.baselineNanosPerCost * LATENCY_TOLERANCE) {
+                isOverloaded = true;
+            }
+        }
+
+        for (var costClass : costClasses) {
+            if (costClass.count >= MIN_CLASS_SAMPLES) {
+                var median = costClass.median();
+                if (Double.isNaN(costClass.baselineNanosPerCost)) {
+                    costClass.baselineNanosPerCost = median;
+                } else {
+                    var smoothing = isOverloaded ? OVERLOADED_BASELINE_SMOOTHING : BASELINE_SMOOTHING;
+                    costClass.baselineNanosPerCost += (median - costClass.baselineNanosPerCost) * smoothing;
+                }
+            }
+            costClass.reset();
+        }
+
+        if (isOverloaded) {
+            limit = Math.max(minLimit, limit * DECREASE_FACTOR);
+        } else {
+            limit = Math.min(maxLimit, limit + windowCost / limit);
+        }
+    }
+}
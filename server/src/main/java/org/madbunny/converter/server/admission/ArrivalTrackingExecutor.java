@@ -0,0 +1,47 @@
+package org.madbunny.converter.server.admission;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+
+/**
+ * Executor of the HTTP routes which remembers when every task was submitted, so the latency seen by the admission
+ * control includes the time a request has waited for a worker. A task rejected by the delegate is not run, the
+ * RejectedExecutionException is thrown to the caller.
+ */
+public class ArrivalTrackingExecutor implements Executor, AutoCloseable {
+    // Zero while the thread does not run a task of such an executor
+    private static final ThreadLocal<long[]> ARRIVAL_NANOS = ThreadLocal.withInitial(() -> new long[1]);
+
+    private final ExecutorService delegate;
+
+    public ArrivalTrackingExecutor(ExecutorService delegate) {
+        this.delegate = delegate;
+    }
+
+    /**
+     * @return  System.nanoTime() at the submission of the task run by the current thread, or now if there is none.
+     */
+    public static long getArrivalNanos() {
+        var arrivalNanos = ARRIVAL_NANOS.get()[0];
+        return arrivalNanos != 0 ? arrivalNanos : System.nanoTime();
+    }
+
+    @Override
+    public void execute(Runnable task) {
+        var arrivalNanos = System.nanoTime();
+        delegate.execute(() -> {
+            var holder = ARRIVAL_NANOS.get();
+            holder[0] = arrivalNanos;
+            try {
+                task.run();
+            } finally {
+                holder[0] = 0;
+            }
+        });
+    }
+
+    @Override
+    public void close() {
+        delegate.shutdown();
+    }
+}
@@ -0,0 +1,186 @@
+package org.madbunny.converter.server.binary;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import io.netty.channel.ChannelHandler;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.SimpleChannelInboundHandler;
+import org.madbunny.converter.client.BinaryProtocol;
+import org.madbunny.converter.core.api.ConversionResult;
+import org.madbunny.converter.server.admission.AdmissionController;
+import org.madbunny.converter.server.catalog.Catalog;
+import org.madbunny.converter.server.catalog.CatalogRegistry;
+import org.madbunny.converter.server.handler.ResultFormatter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.Supplier;
+
+/**
+ * Decodes requests on the event loop and handles them on the executor, so responses are written as soon as they are
+ * ready, regardless of the order of the requests. Requests to loaded catalogs pass the admission control on the event
+ * loop, so rejected ones never wait in the queue of the executor.
+ */
+@ChannelHandler.Sharable
+class BinaryRequestHandler extends SimpleChannelInboundHandler<ByteBuf> {
+    private static final Logger LOG = LoggerFactory.getLogger(BinaryRequestHandler.class);
+    private static final String MESSAGE_OVERLOADED = "Server is overloaded";
+    private static final String MESSAGE_UNKNOWN_CATALOG = "Unknown catalog";
+    private static final String MESSAGE_RESPONSE_TOO_LONG = "Response is too long";
+    private static final String TRUNCATION_MARK = "...";
+    // A char takes at most 3 bytes in UTF-8, a surrogate pair takes 4
+    private static final int MAX_MESSAGE_CHARS = BinaryProtocol.MAX_RESPONSE_VALUE_LENGTH / 3
+            - TRUNCATION_MARK.length();
+
+    private final CatalogRegistry catalogs;
+    private final AdmissionController admissionController;
+    private final Executor executor;
+
+    BinaryRequestHandler(CatalogRegistry catalogs, AdmissionController admissionController, Executor executor) {
+        this.catalogs = catalogs;
+        this.admissionController = admissionController;
+        this.executor = executor;
+    }
+
+    @Override
+    protected void channelRead0(ChannelHandlerContext ctx, ByteBuf frame) {
+        var arrivalNanos = System.nanoTime();
+        var request = BinaryProtocol.decodeRequest(frame.nioBuffer());
+        var catalog = catalogs.getIfLoaded(request.catalog);
+        if (catalog == null) {
+            // The catalog is unknown or has to be loaded, which must not block the event loop
+            submit(ctx, request, null, () -> handle(request, arrivalNanos));
+            return;
+        }
+
+        // Rejected requests are answered right on the event loop, without queueing them to the executor
+        var permit = admissionController.tryAcquire(catalog.converter.estimateCost(request.from, request.to),
+                arrivalNanos);
+        if (permit == null) {
+            write(ctx, overloaded(request));
+            return;
+        }
+        submit(ctx, request, permit, () -> convert(catalog, request, permit));
+    }
+
+    @Override
+    public void exceptionCaught(ChannelHandlerContext ctx, Throwable cause) {
+        // A malformed frame breaks the framing of the whole connection, so there is no way to recover
+        LOG.warn("Closing binary connection " + ctx.channel().remoteAddress() + ": " + cause.getMessage());
+        ctx.close();
+    }
+
+    // Stops reading the requests of a client which does not read the responses, until they are flushed
+    @Override
+    public void channelWritabilityChanged(ChannelHandlerContext ctx) throws Exception {
+        if (ctx.channel().isWritable()) {
+            ctx.channel().config().setAutoRead(true);
+        }
+        ctx.fireChannelWritabilityChanged();
+    }
+
+    private static void write(ChannelHandlerContext ctx, BinaryProtocol.Response response) {
+        ByteBuffer frame;
+        try {
+            frame = BinaryProtocol.encodeResponse(response);
+        } catch (RuntimeException exception) {
+            // The request must get a response anyway, otherwise its client waits for it forever
+            var error = new BinaryProtocol.Response(response.id, BinaryProtocol.STATUS_INTERNAL_ERROR,
+                    MESSAGE_RESPONSE_TOO_LONG);
+            frame = BinaryProtocol.encodeResponse(error);
+        }
+        ctx.writeAndFlush(Unpooled.wrappedBuffer(frame));
+        var channel = ctx.channel();
+        if (!channel.isWritable()) {
+            channel.config().setAutoRead(false);
+            // The buffer could have been flushed before reading was stopped, then no event would resume it
+            if (channel.isWritable()) {
+                channel.config().setAutoRead(true);
+            }
+        }
+    }
+
+    // The executor has a bounded queue, a request which does not fit into it is rejected as well
+    private void submit(ChannelHandlerContext ctx, BinaryProtocol.Request request, AdmissionController.Permit permit,
+                        Supplier<BinaryProtocol.Response> task) {
+        try {
+            executor.execute(() -> write(ctx, task.get()));
+        } catch (RejectedExecutionException exception) {
+            if (permit != null) {
+                admissionController.release(permit);
+            }
+            write(ctx, overloaded(request));
+        }
+    }
+
+    private BinaryProtocol.Response handle(BinaryProtocol.Request request, long arrivalNanos) {
+        Catalog catalog;
+        try {
+            catalog = catalogs.get(request.catalog);
+        } catch (Exception exception) {
+            return internalError(request, exception);
+        }
+        if (catalog == null) {
+            var message = MESSAGE_UNKNOWN_CATALOG + ": " + request.catalog;
+            return error(request, BinaryProtocol.STATUS_UNKNOWN_CATALOG, message);
+        }
+
+        var permit = admissionController.tryAcquire(catalog.converter.estimateCost(request.from, request.to),
+                arrivalNanos);
+        if (permit == null) {
+            return overloaded(request);
+        }
+        return convert(catalog, request, permit);
+    }
+
+    // Releases the permit once the conversion is over
+    private BinaryProtocol.Response convert(Catalog catalog, BinaryProtocol.Request request,
+                                            AdmissionController.Permit permit) {
+        try {
+            var result = catalog.converter.tryConvert(request.from, request.to);
+            return toResponse(request, result);
+        } catch (Exception exception) {
+            return internalError(request, exception);
+        } finally {
+            admissionController.release(permit);
+        }
+    }
+
+    private static BinaryProtocol.Response overloaded(BinaryProtocol.Request request) {
+        return error(request, BinaryProtocol.STATUS_OVERLOADED, MESSAGE_OVERLOADED);
+    }
+
+    private static BinaryProtocol.Response internalError(BinaryProtocol.Request request, Exception exception) {
+        return error(request, BinaryProtocol.STATUS_INTERNAL_ERROR, String.valueOf(exception.getMessage()));
+    }
+
+    // Error messages repeat the expressions of the request, so they are cut to fit into a frame
+    private static BinaryProtocol.Response error(BinaryProtocol.Request request, byte status, String message) {
+        if (message.length() > MAX_MESSAGE_CHARS) {
+            var end = Character.isHighSurrogate(message.charAt(MAX_MESSAGE_CHARS - 1))
+                    ? MAX_MESSAGE_CHARS - 1
+                    : MAX_MESSAGE_CHARS;
+            message = message.substring(0, end) + TRUNCATION_MARK;
+        }
+        return new BinaryProtocol.Response(request.id, status, message);
+    }
+
+    private static BinaryProtocol.Response toResponse(BinaryProtocol.Request request, ConversionResult result) {
+        switch (result.getStatus()) {
+            case OK:
+                var value = ResultFormatter.format(result.getValue(), request.precision);
+                return new BinaryProtocol.Response(request.id, BinaryProtocol.STATUS_OK, value);
+            case UNKNOWN_UNITS:
+                var unknownUnits = result.getMessage() + ": " + String.join(", ", result.getUnknownUnits());
+                return error(request, BinaryProtocol.STATUS_UNKNOWN_UNITS, unknownUnits);
+            case IMPOSSIBLE_TO_CONVERT:
+                var impossible = String.format("%s: %s -> %s", result.getMessage(), result.getFrom(), result.getTo());
+                return error(request, BinaryProtocol.STATUS_IMPOSSIBLE_TO_CONVERT, impossible);
+            default:
+                return error(request, BinaryProtocol.STATUS_INCORRECT_EXPRESSION, result.getMessage());
+        }
+    }
+}
@@ -0,0 +1,69 @@
+package org.madbunny.converter.server.binary;
+
+import io.netty.bootstrap.ServerBootstrap;
+import io.netty.channel.Channel;
+import io.netty.channel.ChannelInitializer;
+import io.netty.channel.ChannelOption;
+import io.netty.channel.EventLoopGroup;
+import io.netty.channel.nio.NioEventLoopGroup;
+import io.netty.channel.socket.SocketChannel;
+import io.netty.channel.socket.nio.NioServerSocketChannel;
+import io.netty.handler.codec.LengthFieldBasedFrameDecoder;
+import org.madbunny.converter.client.BinaryProtocol;
+import org.madbunny.converter.server.admission.AdmissionController;
+import org.madbunny.converter.server.catalog.CatalogRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Listener of the binary protocol described in BinaryProtocol, served by the same catalogs as the HTTP endpoints.
+ */
+public class BinaryServer implements AutoCloseable {
+    private static final Logger LOG = LoggerFactory.getLogger(BinaryServer.class);
+
+    // Requests which do not fit into the queue are rejected as overloaded
+    private static final int EXECUTOR_QUEUE_CAPACITY = 4096;
+
+    private final EventLoopGroup bossGroup = new NioEventLoopGroup(1);
+    private final EventLoopGroup workerGroup = new NioEventLoopGroup();
+    private final ExecutorService executor = new ThreadPoolExecutor(Runtime.getRuntime().availableProcessors(),
+            Runtime.getRuntime().availableProcessors(), 0, TimeUnit.MILLISECONDS,
+            new ArrayBlockingQueue<>(EXECUTOR_QUEUE_CAPACITY));
+    private final Channel channel;
+
+    public BinaryServer(int port, CatalogRegistry catalogs, AdmissionController admissionController)
+            throws InterruptedException {
+        LOG.info(String.format("Starting the binary protocol listener on port: %d", port));
+        var handler = new BinaryRequestHandler(catalogs, admissionController, executor);
+        channel = new ServerBootstrap()
+                .group(bossGroup, workerGroup)
+                .channel(NioServerSocketChannel.class)
+                .childOption(ChannelOption.TCP_NODELAY, true)
+                .childHandler(new ChannelInitializer<SocketChannel>() {
+                    @Override
+                    protected void initChannel(SocketChannel ch) {
+                        ch.pipeline()
+                                .addLast(new LengthFieldBasedFrameDecoder(BinaryProtocol.MAX_FRAME_LENGTH,
+                                        0, BinaryProtocol.LENGTH_FIELD_SIZE, 0, BinaryProtocol.LENGTH_FIELD_SIZE))
+                                .addLast(handler);
+                    }
+                })
+                .bind(port)
+                .sync()
+                .channel();
+    }
+
+    @Override
+    public void close() {
+        LOG.info("Stopping the binary protocol listener");
+        channel.close().syncUninterruptibly();
+        bossGroup.shutdownGracefully();
+        workerGroup.shutdownGracefully();
+        executor.shutdown();
+    }
+}
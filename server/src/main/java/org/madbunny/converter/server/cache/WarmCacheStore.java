@@ -0,0 +1,180 @@
+package org.madbunny.converter.server.cache;
+
+import org.madbunny.converter.core.api.CachedConversion;
+import org.madbunny.converter.core.api.CachingUnitsConverter;
+import org.madbunny.converter.server.catalog.Catalog;
+import org.madbunny.converter.server.catalog.CatalogRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Keeps the hottest cached conversions of every catalog in a local file, so that a restarted process starts with
+ * a warm cache. A snapshot is stamped with the version of its catalog and is discarded if the catalog has changed.
+ * File format: int32 magic, int32 format version, string catalog version, int32 count, then count entries of
+ * string from, string to, int32 scale and uint16-length bytes of the unscaled value; strings are modified UTF-8.
+ */
+public class WarmCacheStore implements AutoCloseable {
+    private static final Logger LOG = LoggerFactory.getLogger(WarmCacheStore.class);
+    private static final int MAGIC = 0x55435743;
+    private static final int FORMAT_VERSION = 1;
+    private static final String FILE_SUFFIX = ".warm";
+    private static final String TEMPORARY_FILE_SUFFIX = ".tmp";
+    // Longer expressions may not fit into a modified UTF-8 string, which takes up to 3 bytes per char
+    private static final int MAX_EXPRESSION_LENGTH = 0xFFFF / 3;
+
+    private final Path directory;
+    private final int size;
+    private volatile CatalogRegistry catalogs;
+    private volatile ScheduledExecutorService snapshotter;
+
+    /**
+     * @param size  maximum number of conversions kept per catalog.
+     */
+    public WarmCacheStore(Path directory, int size) throws IOException {
+        if (size <= 0) {
+            throw new IllegalArgumentException("Warm cache size must be positive");
+        }
+        this.directory = Files.createDirectories(directory);
+        this.size = size;
+    }
+
+    public int getSize() {
+        return size;
+    }
+
+    /**
+     * Fills the converter from the snapshot of the catalog, if there is one made over the same catalog version.
+     */
+    public void preload(String catalogName, String catalogVersion, CachingUnitsConverter converter) {
+        var file = getFile(catalogName);
+        try (var input = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+            if (input.readInt() != MAGIC || input.readInt() != FORMAT_VERSION) {
+                discard(file, "unknown format");
+                return;
+            }
+            if (!input.readUTF().equals(catalogVersion)) {
+                discard(file, "the catalog has changed");
+                return;
+            }
+
+            var count = Math.min(input.readInt(), size);
+            List<CachedConversion> conversions = new ArrayList<>(Math.max(count, 0));
+            for (int i = 0; i < count; i++) {
+                var from = input.readUTF();
+                var to = input.readUTF();
+                var scale = input.readInt();
+                var unscaledValue = new byte[input.readUnsignedShort()];
+                input.readFully(unscaledValue);
+                conversions.add(new CachedConversion(from, to, new BigDecimal(new BigInteger(unscaledValue), scale)));
+            }
+            converter.preload(conversions);
+            LOG.info(String.format("Preloaded %d conversions of catalog \"%s\"", conversions.size(), catalogName));
+        } catch (NoSuchFileException exception) {
+            LOG.info(String.format("No warm cache snapshot of catalog \"%s\"", catalogName));
+        } catch (IOException | RuntimeException exception) {
+            discard(file, exception.toString());
+        }
+    }
+
+    /**
+     * Starts periodic snapshots of the loaded catalogs. The last snapshot is made on close.
+     */
+    public void start(CatalogRegistry catalogs, Duration interval) {
+        this.catalogs = catalogs;
+        snapshotter = Executors.newSingleThreadScheduledExecutor((runnable) -> {
+            var thread = new Thread(runnable, "warm-cache-snapshotter");
+            thread.setDaemon(true);
+            return thread;
+        });
+        var period = Math.max(1, interval.toNanos());
+        snapshotter.scheduleAtFixedRate(this::snapshotAll, period, period, TimeUnit.NANOSECONDS);
+    }
+
+    @Override
+    public void close() {
+        var snapshotter = this.snapshotter;
+        if (snapshotter != null) {
+            snapshotter.shutdownNow();
+        }
+        snapshotAll();
+    }
+
+    private synchronized void snapshotAll() {
+        var catalogs = this.catalogs;
+        if (catalogs == null) {
+            return;
+        }
+
+        for (var catalog : catalogs.getLoaded()) {
+            try {
+                snapshot(catalog);
+            } catch (IOException | RuntimeException exception) {
+                LOG.warn(String.format("Failed to snapshot the cache of catalog \"%s\": %s",
+                        catalog.name, exception));
+            }
+        }
+    }
+
+    private void snapshot(Catalog catalog) throws IOException {
+        if (!(catalog.converter instanceof CachingUnitsConverter)) {
+            return;
+        }
+
+        var conversions = new ArrayList<CachedConversion>();
+        for (var conversion : ((CachingUnitsConverter)catalog.converter).getHottest(size)) {
+            if (conversion.getFrom().length() <= MAX_EXPRESSION_LENGTH
+                    && conversion.getTo().length() <= MAX_EXPRESSION_LENGTH) {
+                conversions.add(conversion);
+            }
+        }
+        var file = getFile(catalog.name);
+        var temporaryFile = file.resolveSibling(file.getFileName() + TEMPORARY_FILE_SUFFIX);
+        try (var output = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temporaryFile)))) {
+            output.writeInt(MAGIC);
+            output.writeInt(FORMAT_VERSION);
+            output.writeUTF(catalog.getVersion());
+            output.writeInt(conversions.size());
+            for (var conversion : conversions) {
+                var unscaledValue = conversion.getValue().unscaledValue().toByteArray();
+                output.writeUTF(conversion.getFrom());
+                output.writeUTF(conversion.getTo());
+                output.writeInt(conversion.getValue().scale());
+                output.writeShort(unscaledValue.length);
+                output.write(unscaledValue);
+            }
+        }
+        // Readers never see a partially written snapshot
+        Files.move(temporaryFile, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private Path getFile(String catalogName) {
+        return directory.resolve(catalogName + FILE_SUFFIX);
+    }
+
+    private void discard(Path file, String reason) {
+        LOG.info(String.format("Discarding warm cache snapshot %s: %s", file, reason));
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException exception) {
+            LOG.warn(String.format("Failed to delete %s: %s", file, exception));
+        }
+    }
+}
@@ -0,0 +1,29 @@
+package org.madbunny.converter.server.catalog;
+
+import org.madbunny.converter.core.api.CachingUnitsConverter;
+import org.madbunny.converter.core.api.UnitsConverter;
+import org.madbunny.converter.core.api.UnitsDatabase;
+
+public class Catalog {
+    public final String name;
+    public final UnitsDatabase database;
+    // The converter over the database as is, without caching and other decorations
+    public final UnitsConverter rawConverter;
+    public final UnitsConverter converter;
+    // Same as the converter, but its requests are not counted as cache hits, see Warmup
+    public final UnitsConverter warmupConverter;
+
+    public Catalog(String name, UnitsDatabase database, UnitsConverter rawConverter, UnitsConverter converter) {
+        this.name = name;
+        this.database = database;
+        this.rawConverter = rawConverter;
+        this.converter = converter;
+        this.warmupConverter = converter instanceof CachingUnitsConverter
+                ? ((CachingUnitsConverter)converter).withoutHitCounting()
+                : converter;
+    }
+
+    public String getVersion() {
+        return database.getCatalogVersion();
+    }
+}
@@ -0,0 +1,188 @@
+package org.madbunny.converter.server.catalog;
+
+import org.madbunny.converter.core.api.UnitNamesArena;
+import org.madbunny.converter.core.api.UnitsConverter;
+import org.madbunny.converter.core.api.UnitsConverterFactory;
+import org.madbunny.converter.core.api.UnitsDatabase;
+import org.madbunny.converter.core.api.UnitsDatabaseFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Named catalogs served by the process. All of them share a single arena of unit names. Eager catalogs are loaded
+ * on creation of the registry and live forever, lazy ones are loaded on the first access and unloaded after being
+ * idle for the given timeout. Layered catalogs share the structures of their bases, which are therefore never unloaded.
+ */
+public class CatalogRegistry implements AutoCloseable {
+    public interface ConverterDecorator {
+        UnitsConverter decorate(String catalogName, UnitsDatabase database, UnitsConverter rawConverter)
+                throws Exception;
+    }
+
+    private static final Logger LOG = LoggerFactory.getLogger(CatalogRegistry.class);
+
+    private static class Entry {
+        final CatalogSpec spec;
+        volatile Catalog catalog;
+        volatile long lastAccessNanos;
+
+        Entry(CatalogSpec spec) {
+            this.spec = spec;
+        }
+    }
+
+    private final UnitNamesArena arena = new UnitNamesArena();
+    private final ConverterDecorator converterDecorator;
+    private final Map<String, Entry> entries = new LinkedHashMap<>();
+    private final Set<String> baseNames = new HashSet<>();
+    private final String defaultName;
+    private final long idleTimeoutNanos;
+    private final ScheduledExecutorService evictor;
+
+    public CatalogRegistry(List<CatalogSpec> specs, Duration idleTimeout, ConverterDecorator converterDecorator)
+            throws Exception {
+        if (specs.isEmpty()) {
+            throw new IllegalArgumentException("No catalogs are given");
+        }
+
+        this.converterDecorator = converterDecorator;
+        this.defaultName = specs.get(0).name;
+        this.idleTimeoutNanos = idleTimeout.toNanos();
+        for (var spec : specs) {
+            if (entries.put(spec.name, new Entry(spec)) != null) {
+                throw new IllegalArgumentException(String.format("Duplicate catalog: \"%s\"", spec.name));
+            }
+        }
+        for (var spec : specs) {
+            if (spec.baseName == null) {
+                continue;
+            }
+
+            var base = entries.get(spec.baseName);
+            if (base == null || base.spec.baseName != null) {
+                throw new IllegalArgumentException(String.format(
+                        "Catalog \"%s\" must be layered on a non-layered catalog", spec.name));
+            }
+            baseNames.add(spec.baseName);
+        }
+        for (var entry : entries.values()) {
+            if (!entry.spec.lazy) {
+                entry.catalog = load(entry.spec);
+            }
+        }
+
+        evictor = Executors.newSingleThreadScheduledExecutor((runnable) -> {
+            var thread = new Thread(runnable, "catalog-evictor");
+            thread.setDaemon(true);
+            return thread;
+        });
+        var period = Math.max(1, idleTimeoutNanos / 4);
+        evictor.scheduleAtFixedRate(this::evictIdle, period, period, TimeUnit.NANOSECONDS);
+    }
+
+    public String getDefaultName() {
+        return defaultName;
+    }
+
+    /**
+     * @param name  name of the catalog or null for the default one.
+     * @return      the catalog, loaded if necessary, or null if there is no catalog with this name.
+     */
+    public Catalog get(String name) throws Exception {
+        var entry = entries.get(name == null ? defaultName : name);
+        if (entry == null) {
+            return null;
+        }
+
+        entry.lastAccessNanos = System.nanoTime();
+        var catalog = entry.catalog;
+        if (catalog != null) {
+            return catalog;
+        }
+
+        synchronized (entry) {
+            if (entry.catalog == null) {
+                entry.catalog = load(entry.spec);
+            }
+            return entry.catalog;
+        }
+    }
+
+    /**
+     * Same as get, but never loads a catalog, so it is cheap enough to be called on an event loop.
+     * @return  the catalog or null if there is no catalog with this name or it is not loaded at the moment.
+     */
+    public Catalog getIfLoaded(String name) {
+        var entry = entries.get(name == null ? defaultName : name);
+        if (entry == null) {
+            return null;
+        }
+
+        var catalog = entry.catalog;
+        if (catalog != null) {
+            entry.lastAccessNanos = System.nanoTime();
+        }
+        return catalog;
+    }
+
+    // Catalogs which are loaded at the moment
+    public List<Catalog> getLoaded() {
+        var result = new ArrayList<Catalog>();
+        for (var entry : entries.values()) {
+            var catalog = entry.catalog;
+            if (catalog != null) {
+                result.add(catalog);
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public void close() {
+        evictor.shutdownNow();
+    }
+
+    private Catalog load(CatalogSpec spec) throws Exception {
+        LOG.info(String.format("Loading catalog \"%s\" from file: %s", spec.name, spec.fileName));
+        var database = UnitsDatabaseFactory.createFromCsvFile(spec.fileName, arena);
+        UnitsConverter rawConverter;
+        if (spec.baseName == null) {
+            rawConverter = UnitsConverterFactory.createOverDb(database);
+        } else {
+            var base = get(spec.baseName);
+            database = UnitsDatabaseFactory.createLayered(base.database, database);
+            rawConverter = UnitsConverterFactory.createLayeredOverDb(base.rawConverter, database);
+        }
+        var converter = converterDecorator.decorate(spec.name, database, rawConverter);
+        LOG.info(String.format("Catalog \"%s\" is loaded, unit names in the arena: %d", spec.name, arena.size()));
+        return new Catalog(spec.name, database, rawConverter, converter);
+    }
+
+    private void evictIdle() {
+        var now = System.nanoTime();
+        for (var entry : entries.values()) {
+            var isEvictable = entry.spec.lazy && !baseNames.contains(entry.spec.name);
+            if (!isEvictable || entry.catalog == null || now - entry.lastAccessNanos < idleTimeoutNanos) {
+                continue;
+            }
+
+            synchronized (entry) {
+                if (entry.catalog != null && now - entry.lastAccessNanos >= idleTimeoutNanos) {
+                    LOG.info(String.format("Unloading idle catalog \"%s\"", entry.spec.name));
+                    entry.catalog = null;
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,60 @@
+package org.madbunny.converter.server.catalog;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+public class CatalogSpec {
+    // Name of the catalog if the server is given a single file
+    public static final String DEFAULT_NAME = "default";
+
+    private static final String ENTRIES_SEPARATOR = ",";
+    private static final String NAME_SEPARATOR = "=";
+    // Only a leading plain name followed by '+' is a base, so a '+' within a path like /data/c++/units.csv is not
+    private static final Pattern LAYERED_FILE_NAME = Pattern.compile("([^/\\\\.\\s+]+)\\+([^+].*)");
+
+    public final String name;
+    public final String fileName;
+    // Lazy catalogs are loaded on the first request and unloaded after being idle for a while
+    public final boolean lazy;
+    // Name of the catalog this one is layered on or null, in this case the file contains the delta only
+    public final String baseName;
+
+    public CatalogSpec(String name, String fileName, boolean lazy, String baseName) {
+        this.name = name;
+        this.fileName = fileName;
+        this.lazy = lazy;
+        this.baseName = baseName;
+    }
+
+    /**
+     * Parses either a single file name or a comma-separated list of name=fileName entries. A catalog layered on top
+     * of another one is given as name=baseName+deltaFileName, the base name being a plain name rather than a path.
+     * @param lazyNames names of the catalogs to be loaded lazily.
+     */
+    public static List<CatalogSpec> parse(String value, Set<String> lazyNames) {
+        var result = new ArrayList<CatalogSpec>();
+        if (!value.contains(NAME_SEPARATOR)) {
+            result.add(new CatalogSpec(DEFAULT_NAME, value, false, null));
+            return result;
+        }
+
+        for (var entry : value.split(ENTRIES_SEPARATOR)) {
+            var nameAndFile = entry.split(NAME_SEPARATOR, 2);
+            if (nameAndFile.length != 2 || nameAndFile[0].isBlank() || nameAndFile[1].isBlank()) {
+                throw new IllegalArgumentException(String.format("Incorrect catalog: \"%s\"", entry));
+            }
+            var name = nameAndFile[0].strip();
+            var fileName = nameAndFile[1].strip();
+            String baseName = null;
+            var layeredFileName = LAYERED_FILE_NAME.matcher(fileName);
+            if (layeredFileName.matches()) {
+                baseName = layeredFileName.group(1);
+                fileName = layeredFileName.group(2).strip();
+            }
+            result.add(new CatalogSpec(name, fileName, lazyNames.contains(name), baseName));
+        }
+        return result;
+    }
+}
@@ -1,125 +1,378 @@
 package org.madbunny.converter.server.handler;
 
 import com.google.gson.Gson;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
 import io.jooby.Context;
 import io.jooby.MediaType;
+import io.jooby.StatusCode;
+import io.jooby.annotations.GET;
 import io.jooby.annotations.POST;
 import io.jooby.annotations.Path;
+import org.madbunny.converter.core.api.ConversionResult;
 import org.madbunny.converter.core.api.UnitsConverter;
-import org.madbunny.converter.core.api.exceptions.ImpossibleToConvertException;
-import org.madbunny.converter.core.api.exceptions.UnknownUnitsException;
+import org.madbunny.converter.server.admission.AdmissionController;
+import org.madbunny.converter.server.admission.ArrivalTrackingExecutor;
+import org.madbunny.converter.server.catalog.Catalog;
+import org.madbunny.converter.server.catalog.CatalogRegistry;
+import org.madbunny.converter.server.warmup.Warmup;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.math.BigDecimal;
-import java.math.MathContext;
-import java.math.RoundingMode;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
 
 @Path("/convert")
 public class Convert {
     private static final Logger LOG = LoggerFactory.getLogger(Convert.class);
 
-    private static final int SIGNIFICANT_DIGITS = 15;
-    private static final MathContext MATH_CONTEXT = new MathContext(SIGNIFICANT_DIGITS, RoundingMode.CEILING);
-
     private static final int RESPONSE_CODE_OK = 200;
     private static final int RESPONSE_CODE_UNKNOWN_UNITS = 400;
+    private static final int RESPONSE_CODE_UNKNOWN_CATALOG = 400;
     private static final int RESPONSE_CODE_CANNOT_CONVERT = 404;
     private static final int RESPONSE_CODE_GENERAL_EXCEPTION = 500;
+    private static final int RESPONSE_CODE_OVERLOADED = 503;
+
+    private static final String QUERY_FROM = "from";
+    private static final String QUERY_TO = "to";
+    private static final String QUERY_CATALOG = "catalog";
+    private static final String PATH_CATALOG = "catalog";
+    private static final String HEADER_ETAG = "ETag";
+    private static final String HEADER_CACHE_CONTROL = "Cache-Control";
+    private static final String HEADER_IF_NONE_MATCH = "If-None-Match";
+    private static final String CACHE_CONTROL = "public, max-age=3600";
+    private static final String HEADER_RETRY_AFTER = "Retry-After";
+    private static final String RETRY_AFTER_SECONDS = "1";
+    private static final String MESSAGE_OVERLOADED = "Server is overloaded";
+    private static final String MESSAGE_UNKNOWN_CATALOG = "Unknown catalog";
+    private static final String STATUS_OVERLOADED = "OVERLOADED";
 
-    private final UnitsConverter converter;
+    private final CatalogRegistry catalogs;
+    private final AdmissionController admissionController;
+    private final SlowRequestLog slowRequestLog;
+    private final byte[] warmupToken;
     private final Gson jsonFormatter = new Gson();
 
+    // Bodies are parsed and formatted through the JSON tree rather than by reflection
+    private interface JsonBody {
+        JsonObject toJson();
+    }
+
     private static class RequestBody {
         public final String from;
         public final String to;
+        // Optional, the default catalog is used if it is absent
+        public final String catalog;
 
-        public RequestBody(String from, String to) {
+        public RequestBody(String from, String to, String catalog) {
             this.from = from;
             this.to = to;
+            this.catalog = catalog;
         }
 
-        // Gson fails without this constructor
-        private RequestBody() {
-            from = "";
-            to = "";
+        // Absent units are treated as empty expressions
+        public static RequestBody parse(String body) {
+            var json = JsonParser.parseString(body).getAsJsonObject();
+            return new RequestBody(getString(json, "from", ""), getString(json, "to", ""),
+                    getString(json, "catalog", null));
+        }
+
+        private static String getString(JsonObject json, String name, String defaultValue) {
+            var value = json.get(name);
+            return value == null || value.isJsonNull() ? defaultValue : value.getAsString();
         }
     }
 
-    private static class UnknownUnitsErrorBody {
+    private static class UnknownUnitsErrorBody implements JsonBody {
         public final String message;
         public final String[] unknownUnits;
 
-        public UnknownUnitsErrorBody(UnknownUnitsException exception) {
-            this.message = exception.getMessage();
-            this.unknownUnits = exception.unknownUnits;
+        public UnknownUnitsErrorBody(ConversionResult result) {
+            this.message = result.getMessage();
+            this.unknownUnits = result.getUnknownUnits();
+        }
+
+        @Override
+        public JsonObject toJson() {
+            var units = new JsonArray();
+            for (var unit : unknownUnits) {
+                units.add(unit);
+            }
+            var json = new JsonObject();
+            json.addProperty("message", message);
+            json.add("unknownUnits", units);
+            return json;
         }
     }
 
-    private static class ImpossibleToConvertErrorBody {
+    private static class ImpossibleToConvertErrorBody implements JsonBody {
         public final String message;
         public final String from;
         public final String to;
 
-        public ImpossibleToConvertErrorBody(ImpossibleToConvertException exception) {
-            this.message = exception.getMessage();
-            this.from = exception.from;
-            this.to = exception.to;
+        public ImpossibleToConvertErrorBody(ConversionResult result) {
+            this.message = result.getMessage();
+            this.from = result.getFrom();
+            this.to = result.getTo();
+        }
+
+        @Override
+        public JsonObject toJson() {
+            var json = new JsonObject();
+            json.addProperty("message", message);
+            json.addProperty("from", from);
+            json.addProperty("to", to);
+            return json;
+        }
+    }
+
+    private static class UnknownCatalogErrorBody implements JsonBody {
+        public final String message;
+        public final String catalog;
+
+        public UnknownCatalogErrorBody(String catalog) {
+            this.message = MESSAGE_UNKNOWN_CATALOG;
+            this.catalog = catalog;
+        }
+
+        @Override
+        public JsonObject toJson() {
+            var json = new JsonObject();
+            json.addProperty("message", message);
+            json.addProperty("catalog", catalog);
+            return json;
         }
     }
 
-    private static class GeneralErrorBody {
+    private static class GeneralErrorBody implements JsonBody {
         public final String message;
 
-        public GeneralErrorBody(Exception exception) {
-            this.message = exception.getMessage();
+        public GeneralErrorBody(String message) {
+            this.message = message;
+        }
+
+        @Override
+        public JsonObject toJson() {
+            var json = new JsonObject();
+            json.addProperty("message", message);
+            return json;
         }
     }
 
-    public Convert(UnitsConverter converter) {
-        this.converter = converter;
+    /**
+     * @param warmupToken   the token the warmup requests of this process carry, see Warmup.
+     */
+    public Convert(CatalogRegistry catalogs, AdmissionController admissionController,
+                   SlowRequestLog slowRequestLog, String warmupToken) {
+        this.catalogs = catalogs;
+        this.admissionController = admissionController;
+        this.slowRequestLog = slowRequestLog;
+        this.warmupToken = warmupToken.getBytes(StandardCharsets.UTF_8);
     }
 
     @POST
     public void doConvert(Context ctx) {
+        convertBody(ctx, null);
+    }
+
+    @POST
+    @Path("/{catalog}")
+    public void doConvertInCatalog(Context ctx) {
+        convertBody(ctx, ctx.path(PATH_CATALOG).value());
+    }
+
+    /**
+     * Same as the POST variant, but with the units in the query: GET /convert?from=..&to=.. Successful responses
+     * carry an ETag and Cache-Control, so they could be served by HTTP caches.
+     */
+    @GET
+    public void doConvertCacheable(Context ctx) {
+        convertQuery(ctx, ctx.query(QUERY_CATALOG).valueOrNull());
+    }
+
+    @GET
+    @Path("/{catalog}")
+    public void doConvertCacheableInCatalog(Context ctx) {
+        convertQuery(ctx, ctx.path(PATH_CATALOG).value());
+    }
+
+    // The catalog given in the path takes precedence over the one given in the body
+    private void convertBody(Context ctx, String catalogName) {
+        var begin = System.nanoTime();
         try {
-            var body = ctx.body(RequestBody.class);
-            var result = converter.convert(body.from, body.to);
-            onSuccess(ctx, result);
-        } catch (UnknownUnitsException exception) {
-            onUnknownUnits(ctx, exception);
-        } catch (ImpossibleToConvertException exception) {
-            onImpossibleToConvert(ctx, exception);
+            var body = RequestBody.parse(ctx.body().value());
+            var catalog = getCatalog(ctx, catalogName != null ? catalogName : body.catalog);
+            if (catalog == null) {
+                return;
+            }
+
+            var result = tryConvertAdmitted(selectConverter(ctx, catalog), body.from, body.to);
+            if (result == null) {
+                onOverloaded(ctx);
+                slowRequestLog.record(catalog, body.from, body.to, STATUS_OVERLOADED, System.nanoTime() - begin);
+                return;
+            }
+            onResult(ctx, result);
+            slowRequestLog.record(catalog, body.from, body.to, result.getStatus().name(), System.nanoTime() - begin);
         } catch (Exception exception) {
-            onGeneralException(ctx, exception);
+            onGeneralError(ctx, exception.getMessage());
         }
     }
 
-    private static void onSuccess(Context ctx, BigDecimal result) {
-        ctx.setResponseType(MediaType.TEXT).setResponseCode(RESPONSE_CODE_OK).send(formatResult(result));
+    private void convertQuery(Context ctx, String catalogName) {
+        var begin = System.nanoTime();
+        try {
+            var catalog = getCatalog(ctx, catalogName);
+            if (catalog == null) {
+                return;
+            }
+
+            // Absent units are treated as empty expressions, same as in the POST variant
+            var from = ctx.query(QUERY_FROM).value("");
+            var to = ctx.query(QUERY_TO).value("");
+            var result = tryConvertAdmitted(selectConverter(ctx, catalog), from, to);
+            if (result == null) {
+                onOverloaded(ctx);
+                slowRequestLog.record(catalog, from, to, STATUS_OVERLOADED, System.nanoTime() - begin);
+                return;
+            }
+            // Only successful responses carry the tag, so a revalidation is answered once the conversion has succeeded,
+            // which is usually a cache hit. Conversion results change only if the catalog does, so its version is
+            // a valid strong validator
+            if (result.isSuccess()) {
+                var etag = "\"" + catalog.getVersion() + "\"";
+                setCacheHeaders(ctx, etag);
+                if (isNotModified(ctx, etag)) {
+                    ctx.send(StatusCode.NOT_MODIFIED);
+                    return;
+                }
+            }
+            onResult(ctx, result);
+            slowRequestLog.record(catalog, from, to, result.getStatus().name(), System.nanoTime() - begin);
+        } catch (Exception exception) {
+            onGeneralError(ctx, exception.getMessage());
+        }
+    }
+
+    // Responds with an error and returns null if there is no such catalog
+    private Catalog getCatalog(Context ctx, String catalogName) throws Exception {
+        var catalog = catalogs.get(catalogName);
+        if (catalog == null) {
+            onUnknownCatalog(ctx, catalogName);
+        }
+        return catalog;
+    }
+
+    // Only the warmup of this process knows the token, other requests with the warmup headers are served as usual
+    private UnitsConverter selectConverter(Context ctx, Catalog catalog) {
+        var token = ctx.header(Warmup.HEADER_TOKEN).valueOrNull();
+        if (token == null || !MessageDigest.isEqual(token.getBytes(StandardCharsets.UTF_8), warmupToken)) {
+            return catalog.converter;
+        }
+        return ctx.header(Warmup.HEADER_SKIP_CACHES).valueOrNull() != null
+                ? catalog.rawConverter
+                : catalog.warmupConverter;
     }
 
-    private static String formatResult(BigDecimal result) {
-        var truncated = new BigDecimal(result.toPlainString(), MATH_CONTEXT);
-        return truncated.stripTrailingZeros().toPlainString();
+    // Returns null if the conversion is rejected by the admission control
+    private ConversionResult tryConvertAdmitted(UnitsConverter converter, String from, String to) {
+        var cost = converter.estimateCost(from, to);
+        var permit = admissionController.tryAcquire(cost, ArrivalTrackingExecutor.getArrivalNanos());
+        if (permit == null) {
+            return null;
+        }
+
+        try {
+            return converter.tryConvert(from, to);
+        } finally {
+            admissionController.release(permit);
+        }
     }
 
-    private void onUnknownUnits(Context ctx, UnknownUnitsException exception) {
-        var body = new UnknownUnitsErrorBody(exception);
+    private static void setCacheHeaders(Context ctx, String etag) {
+        ctx.setResponseHeader(HEADER_ETAG, etag).setResponseHeader(HEADER_CACHE_CONTROL, CACHE_CONTROL);
+    }
+
+    private boolean isNotModified(Context ctx, String etag) {
+        var ifNoneMatch = ctx.header(HEADER_IF_NONE_MATCH).valueOrNull();
+        if (ifNoneMatch == null) {
+            return false;
+        }
+
+        for (var tag : ifNoneMatch.split(",")) {
+            tag = tag.strip();
+            // If-None-Match uses the weak comparison
+            if (tag.startsWith("W/")) {
+                tag = tag.substring(2);
+            }
+            if (tag.equals("*") || tag.equals(etag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void onResult(Context ctx, ConversionResult result) {
+        switch (result.getStatus()) {
+            case OK:
+                onSuccess(ctx, result.getValue());
+                break;
+            case UNKNOWN_UNITS:
+                onUnknownUnits(ctx, result);
+                break;
+            case IMPOSSIBLE_TO_CONVERT:
+                onImpossibleToConvert(ctx, result);
+                break;
+            default:
+                onGeneralError(ctx, result.getMessage());
+                break;
+        }
+    }
+
+    private static void onSuccess(Context ctx, BigDecimal result) {
+        ctx.setResponseType(MediaType.TEXT).setResponseCode(RESPONSE_CODE_OK).send(ResultFormatter.format(result));
+    }
+
+    private void onUnknownUnits(Context ctx, ConversionResult result) {
+        var body = new UnknownUnitsErrorBody(result);
         ctx.setResponseType(MediaType.JSON).setResponseCode(RESPONSE_CODE_UNKNOWN_UNITS).send(formatError(body));
     }
 
-    private void onImpossibleToConvert(Context ctx, ImpossibleToConvertException exception) {
-        var body = new ImpossibleToConvertErrorBody(exception);
+    private void onImpossibleToConvert(Context ctx, ConversionResult result) {
+        var body = new ImpossibleToConvertErrorBody(result);
         ctx.setResponseType(MediaType.JSON).setResponseCode(RESPONSE_CODE_CANNOT_CONVERT).send(formatError(body));
     }
 
-    private void onGeneralException(Context ctx, Exception exception) {
-        var body = new GeneralErrorBody(exception);
+    private void onUnknownCatalog(Context ctx, String catalogName) {
+        var body = new UnknownCatalogErrorBody(catalogName);
+        ctx.setResponseType(MediaType.JSON).setResponseCode(RESPONSE_CODE_UNKNOWN_CATALOG).send(formatError(body));
+    }
+
+    private void onGeneralError(Context ctx, String message) {
+        var body = new GeneralErrorBody(message);
         ctx.setResponseType(MediaType.JSON).setResponseCode(RESPONSE_CODE_GENERAL_EXCEPTION).send(formatError(body));
     }
 
-    private <Body> String formatError(Body body) {
-        return jsonFormatter.toJson(body);
+    private void onOverloaded(Context ctx) {
+        var body = new GeneralErrorBody(MESSAGE_OVERLOADED);
+        ctx.setResponseHeader(HEADER_RETRY_AFTER, RETRY_AFTER_SECONDS);
+        ctx.setResponseType(MediaType.JSON).setResponseCode(RESPONSE_CODE_OVERLOADED).send(formatError(body));
+    }
+
+    /**
+     * Error handler of the requests rejected before they have reached a worker thread, since its queue is full.
+     * Answers them the same way as the ones rejected by the admission control.
+     */
+    public static void onWorkerRejected(Context ctx, Throwable cause, StatusCode code) {
+        var body = new Gson().toJson(new GeneralErrorBody(MESSAGE_OVERLOADED).toJson());
+        ctx.setResponseHeader(HEADER_RETRY_AFTER, RETRY_AFTER_SECONDS);
+        ctx.setResponseType(MediaType.JSON).setResponseCode(RESPONSE_CODE_OVERLOADED).send(body);
+    }
+
+    // Unlike JsonElement.toString, Gson skips null fields, as it did when the bodies were serialized by reflection
+    private String formatError(JsonBody body) {
+        return jsonFormatter.toJson(body.toJson());
     }
 }
@@ -0,0 +1,21 @@
+package org.madbunny.converter.server.handler;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+@Name("org.madbunny.converter.Formatting")
+@Label("Result Formatting")
+@Description("Rounding of a conversion factor to the requested precision")
+@Category("Units Converter")
+@StackTrace(false)
+class FormattingEvent extends Event {
+    @Label("Significant Digits")
+    int significantDigits;
+
+    @Label("Result Length")
+    int resultLength;
+}
@@ -0,0 +1,31 @@
+package org.madbunny.converter.server.handler;
+
+import io.jooby.Context;
+import io.jooby.MediaType;
+import io.jooby.annotations.GET;
+import io.jooby.annotations.Path;
+import org.madbunny.converter.server.warmup.Readiness;
+
+/**
+ * Readiness probe for load balancers: 200 once the warmup is over, 503 before that.
+ */
+@Path("/ready")
+public class Ready {
+    private static final int RESPONSE_CODE_READY = 200;
+    private static final int RESPONSE_CODE_NOT_READY = 503;
+
+    private final Readiness readiness;
+
+    public Ready(Readiness readiness) {
+        this.readiness = readiness;
+    }
+
+    @GET
+    public void isReady(Context ctx) {
+        if (readiness.isReady()) {
+            ctx.setResponseType(MediaType.TEXT).setResponseCode(RESPONSE_CODE_READY).send("ready");
+        } else {
+            ctx.setResponseType(MediaType.TEXT).setResponseCode(RESPONSE_CODE_NOT_READY).send("warming up");
+        }
+    }
+}
@@ -0,0 +1,43 @@
+package org.madbunny.converter.server.handler;
+
+import java.math.BigDecimal;
+import java.math.MathContext;
+import java.math.RoundingMode;
+
+public abstract class ResultFormatter {
+    public static final int DEFAULT_SIGNIFICANT_DIGITS = 15;
+    // Conversion factors are computed by the core with 100 significant digits
+    public static final int MAX_SIGNIFICANT_DIGITS = 100;
+
+    private static final MathContext DEFAULT_MATH_CONTEXT =
+            new MathContext(DEFAULT_SIGNIFICANT_DIGITS, RoundingMode.CEILING);
+
+    public static String format(BigDecimal result) {
+        return format(result, DEFAULT_MATH_CONTEXT);
+    }
+
+    /**
+     * @param significantDigits non-positive values stand for the default precision, too big ones are clamped.
+     */
+    public static String format(BigDecimal result, int significantDigits) {
+        if (significantDigits <= 0 || significantDigits == DEFAULT_SIGNIFICANT_DIGITS) {
+            return format(result);
+        }
+        var digits = Math.min(significantDigits, MAX_SIGNIFICANT_DIGITS);
+        return format(result, new MathContext(digits, RoundingMode.CEILING));
+    }
+
+    private static String format(BigDecimal result, MathContext mathContext) {
+        var event = new FormattingEvent();
+        event.begin();
+        var truncated = new BigDecimal(result.toPlainString(), mathContext);
+        var formatted = truncated.stripTrailingZeros().toPlainString();
+        event.end();
+        if (event.shouldCommit()) {
+            event.significantDigits = mathContext.getPrecision();
+            event.resultLength = formatted.length();
+            event.commit();
+        }
+        return formatted;
+    }
+}
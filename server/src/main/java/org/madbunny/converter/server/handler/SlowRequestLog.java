@@ -0,0 +1,46 @@
+package org.madbunny.converter.server.handler;
+
+import org.madbunny.converter.server.catalog.Catalog;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Logs a sample of the conversions which took longer than the threshold, along with what they cost by the estimate
+ * of the converter, which tells a huge graph component apart from a pause of the process.
+ */
+public class SlowRequestLog {
+    private static final Logger LOG = LoggerFactory.getLogger(SlowRequestLog.class);
+
+    private final long thresholdNanos;
+    private final double sampleRate;
+
+    /**
+     * @param sampleRate    share of the slow requests which are logged, from 0 to 1.
+     */
+    public SlowRequestLog(Duration threshold, double sampleRate) {
+        if (sampleRate < 0 || sampleRate > 1) {
+            throw new IllegalArgumentException("Sample rate must be in [0, 1]");
+        }
+        this.thresholdNanos = threshold.toNanos();
+        this.sampleRate = sampleRate;
+    }
+
+    // Logs nothing
+    public static SlowRequestLog disabled() {
+        return new SlowRequestLog(Duration.ofNanos(Long.MAX_VALUE), 0);
+    }
+
+    public void record(Catalog catalog, String from, String to, String status, long elapsedNanos) {
+        if (elapsedNanos < thresholdNanos || ThreadLocalRandom.current().nextDouble() >= sampleRate) {
+            return;
+        }
+
+        // The raw converter, since the decorated one may estimate a cached conversion as a cheap one
+        var estimatedCost = catalog.rawConverter.estimateCost(from, to);
+        LOG.warn(String.format("Slow conversion: %.3f ms, catalog \"%s\", from \"%s\", to \"%s\", status %s, "
+                + "estimated cost %d", elapsedNanos / 1e6, catalog.name, from, to, status, estimatedCost));
+    }
+}
@@ -0,0 +1,95 @@
+package org.madbunny.converter.server.handler;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonObject;
+import io.jooby.Context;
+import io.jooby.MediaType;
+import io.jooby.annotations.GET;
+import io.jooby.annotations.Path;
+import org.madbunny.converter.server.catalog.CatalogRegistry;
+
+import java.util.List;
+
+/**
+ * Unit names lookup for autocompletion: GET /units?prefix=..[&limit=..][&convertibleTo=..][&catalog=..]
+ */
+@Path("/units")
+public class Units {
+    private static final int RESPONSE_CODE_OK = 200;
+    private static final int RESPONSE_CODE_BAD_REQUEST = 400;
+    private static final int RESPONSE_CODE_GENERAL_EXCEPTION = 500;
+
+    private static final String QUERY_PREFIX = "prefix";
+    private static final String QUERY_LIMIT = "limit";
+    private static final String QUERY_CONVERTIBLE_TO = "convertibleTo";
+    private static final String QUERY_CATALOG = "catalog";
+    private static final int DEFAULT_LIMIT = 10;
+    private static final int MAX_LIMIT = 100;
+
+    private static final String MESSAGE_UNKNOWN_CATALOG = "Unknown catalog";
+    private static final String MESSAGE_UNKNOWN_UNITS = "Unknown units";
+
+    private final CatalogRegistry catalogs;
+    private final Gson jsonFormatter = new Gson();
+
+    // Bodies are formatted through the JSON tree rather than by reflection
+    private static JsonObject createResponseBody(List<String> units) {
+        var array = new JsonArray();
+        for (var unit : units) {
+            array.add(unit);
+        }
+        var json = new JsonObject();
+        json.add("units", array);
+        return json;
+    }
+
+    private static JsonObject createErrorBody(String message, String value) {
+        var json = new JsonObject();
+        json.addProperty("message", message);
+        json.addProperty("value", value);
+        return json;
+    }
+
+    public Units(CatalogRegistry catalogs) {
+        this.catalogs = catalogs;
+    }
+
+    @GET
+    public void findUnits(Context ctx) {
+        try {
+            var catalogName = ctx.query(QUERY_CATALOG).valueOrNull();
+            var catalog = catalogs.get(catalogName);
+            if (catalog == null) {
+                onBadRequest(ctx, MESSAGE_UNKNOWN_CATALOG, catalogName);
+                return;
+            }
+
+            var prefix = ctx.query(QUERY_PREFIX).value("").strip();
+            var limit = Math.max(0, Math.min(MAX_LIMIT, ctx.query(QUERY_LIMIT).intValue(DEFAULT_LIMIT)));
+            var convertibleTo = ctx.query(QUERY_CONVERTIBLE_TO).valueOrNull();
+            List<String> units;
+            if (convertibleTo == null) {
+                units = catalog.database.findUnitsByPrefix(prefix, limit, (unit) -> true);
+            } else if (catalog.database.containsUnit(convertibleTo)) {
+                var converter = catalog.converter;
+                units = catalog.database.findUnitsByPrefix(prefix, limit,
+                        (unit) -> converter.areConvertible(unit, convertibleTo));
+            } else {
+                onBadRequest(ctx, MESSAGE_UNKNOWN_UNITS, convertibleTo);
+                return;
+            }
+
+            var body = jsonFormatter.toJson(createResponseBody(units));
+            ctx.setResponseType(MediaType.JSON).setResponseCode(RESPONSE_CODE_OK).send(body);
+        } catch (Exception exception) {
+            var body = jsonFormatter.toJson(createErrorBody(exception.getMessage(), null));
+            ctx.setResponseType(MediaType.JSON).setResponseCode(RESPONSE_CODE_GENERAL_EXCEPTION).send(body);
+        }
+    }
+
+    private void onBadRequest(Context ctx, String message, String value) {
+        var body = jsonFormatter.toJson(createErrorBody(message, value));
+        ctx.setResponseType(MediaType.JSON).setResponseCode(RESPONSE_CODE_BAD_REQUEST).send(body);
+    }
+}
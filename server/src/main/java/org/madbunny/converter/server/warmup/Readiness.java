@@ -0,0 +1,22 @@
+package org.madbunny.converter.server.warmup;
+
+import java.util.concurrent.CountDownLatch;
+
+/**
+ * Whether the server is ready to receive real traffic, i.e. its warmup is over.
+ */
+public class Readiness {
+    private final CountDownLatch ready = new CountDownLatch(1);
+
+    public boolean isReady() {
+        return ready.getCount() == 0;
+    }
+
+    public void setReady() {
+        ready.countDown();
+    }
+
+    public void await() throws InterruptedException {
+        ready.await();
+    }
+}
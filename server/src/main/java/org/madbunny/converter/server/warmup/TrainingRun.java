@@ -0,0 +1,67 @@
+package org.madbunny.converter.server.warmup;
+
+import com.google.gson.JsonObject;
+import org.madbunny.converter.server.catalog.CatalogRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+/**
+ * A run of the server which goes through its startup, the warmup and a few requests to every endpoint and then exits,
+ * so that a JVM could record the classes it has loaded, e.g. into an AppCDS archive.
+ */
+public class TrainingRun {
+    private static final Logger LOG = LoggerFactory.getLogger(TrainingRun.class);
+
+    /**
+     * Starts the run in the background, once the server is listening on the port.
+     */
+    public static void start(int port, CatalogRegistry catalogs, Readiness readiness) {
+        var thread = new Thread(() -> {
+            var exitCode = 0;
+            try {
+                readiness.await();
+                sendRequests(port, catalogs);
+                LOG.info("Training run is over");
+            } catch (Exception exception) {
+                LOG.error("Training run failed: " + exception);
+                exitCode = 1;
+            }
+            System.exit(exitCode);
+        }, "training-run");
+        thread.start();
+    }
+
+    private static void sendRequests(int port, CatalogRegistry catalogs) throws Exception {
+        var units = catalogs.get(null).database.findUnitsByPrefix("", 1, (unit) -> true);
+        var unit = units.isEmpty() ? "" : units.get(0);
+        var encodedUnit = URLEncoder.encode(unit, StandardCharsets.UTF_8);
+        var body = new JsonObject();
+        body.addProperty("from", unit);
+        body.addProperty("to", unit);
+
+        var baseUri = "http://localhost:" + port;
+        var client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+        var requests = List.of(
+                HttpRequest.newBuilder(URI.create(baseUri + "/convert"))
+                        .header("Content-Type", "application/json")
+                        .POST(HttpRequest.BodyPublishers.ofString(body.toString()))
+                        .build(),
+                HttpRequest.newBuilder(URI.create(baseUri + "/convert?from=" + encodedUnit + "&to=" + encodedUnit))
+                        .build(),
+                HttpRequest.newBuilder(URI.create(baseUri + "/units?prefix=" + encodedUnit)).build(),
+                HttpRequest.newBuilder(URI.create(baseUri + "/ready")).build()
+        );
+        for (var request : requests) {
+            var response = client.send(request, HttpResponse.BodyHandlers.ofString());
+            LOG.info(String.format("Training request %s: %d", request.uri().getPath(), response.statusCode()));
+        }
+    }
+}
@@ -0,0 +1,174 @@
+package org.madbunny.converter.server.warmup;
+
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Replays a recorded request log over loopback HTTP to /convert, so that the whole request path, from the HTTP server
+ * to the formatting of the response, is JIT-compiled before real traffic comes. The log is replayed in rounds until
+ * the throughput of consecutive rounds stabilises or the time is up. Every recorded request is sent both as is and with
+ * HEADER_SKIP_CACHES, so the conversion code runs for it rather than the caching decorators answering it each time.
+ * The requests carry a random token of the process in HEADER_TOKEN, so only they could skip the caches, and they are
+ * not counted as cache hits, which would make the recorded conversions the hottest ones.
+ * Log format: one JSON object per line with the fields from, to and optional catalog; other fields are ignored.
+ */
+public class Warmup {
+    /**
+     * Marks a request to /convert as a warmup one, must be equal to the token of the process.
+     */
+    public static final String HEADER_TOKEN = "X-Converter-Warmup-Token";
+    /**
+     * Makes a warmup request to /convert skip the caching decorators.
+     */
+    public static final String HEADER_SKIP_CACHES = "X-Converter-Warmup-Skip-Caches";
+
+    private static final Logger LOG = LoggerFactory.getLogger(Warmup.class);
+    private static final int MIN_ROUND_REQUESTS = 10_000;
+    private static final int STABLE_ROUNDS = 3;
+    // Relative difference of the throughput of consecutive rounds which is considered stable
+    private static final double STABLE_DIFFERENCE = 0.05;
+    // Requests sent concurrently, so the worker threads of the server are all busy
+    private static final int MAX_IN_FLIGHT = 2 * Runtime.getRuntime().availableProcessors();
+    private static final int TOKEN_BYTES = 16;
+
+    private final List<JsonObject> bodies;
+    private final long maxDurationNanos;
+    private final String token;
+
+    /**
+     * @param token the token of the process, see generateToken().
+     */
+    public Warmup(Path logFile, Duration maxDuration, String token) throws IOException {
+        this.bodies = readLog(logFile);
+        this.maxDurationNanos = maxDuration.toNanos();
+        this.token = token;
+        if (bodies.isEmpty()) {
+            throw new IllegalArgumentException("Warmup log is empty: " + logFile);
+        }
+    }
+
+    /**
+     * @return  a new random token, which is generated once per process and never leaves it.
+     */
+    public static String generateToken() {
+        var bytes = new byte[TOKEN_BYTES];
+        new SecureRandom().nextBytes(bytes);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+    }
+
+    /**
+     * Replays the log against the server listening on the port of the loopback interface.
+     */
+    public void run(int port) {
+        LOG.info(String.format("Starting warmup with %d recorded requests", bodies.size()));
+        var requests = createRequests(port);
+        var client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+        var begin = System.nanoTime();
+        var rounds = 0;
+        var stableRounds = 0;
+        var previousThroughput = 0.0;
+        var throughput = 0.0;
+        try {
+            while (stableRounds < STABLE_ROUNDS && System.nanoTime() - begin < maxDurationNanos) {
+                throughput = runRound(client, requests);
+                rounds++;
+                var difference = Math.abs(throughput - previousThroughput) / Math.max(throughput, previousThroughput);
+                stableRounds = difference < STABLE_DIFFERENCE ? stableRounds + 1 : 0;
+                previousThroughput = throughput;
+            }
+        } catch (Exception exception) {
+            LOG.warn("Warmup failed: " + exception);
+            return;
+        }
+
+        var elapsed = Duration.ofNanos(System.nanoTime() - begin);
+        LOG.info(String.format("Warmup is over in %d ms and %d rounds, %s, last round: %.0f req/s",
+                elapsed.toMillis(), rounds, stableRounds >= STABLE_ROUNDS ? "throughput is stable" : "time is up",
+                throughput));
+    }
+
+    // Every recorded request as is and skipping the caches
+    private List<HttpRequest> createRequests(int port) {
+        var uri = URI.create("http://localhost:" + port + "/convert");
+        var result = new ArrayList<HttpRequest>();
+        for (var body : bodies) {
+            var builder = HttpRequest.newBuilder(uri)
+                    .header("Content-Type", "application/json")
+                    .header(HEADER_TOKEN, token)
+                    .POST(HttpRequest.BodyPublishers.ofString(body.toString()));
+            result.add(builder.build());
+            result.add(builder.header(HEADER_SKIP_CACHES, "true").build());
+        }
+        return result;
+    }
+
+    // Returns the throughput of the round in requests per second
+    private static double runRound(HttpClient client, List<HttpRequest> requests) throws Exception {
+        var inFlight = new Semaphore(MAX_IN_FLIGHT);
+        var error = new AtomicReference<Throwable>();
+        var count = 0;
+        var begin = System.nanoTime();
+        while (count < MIN_ROUND_REQUESTS && error.get() == null) {
+            for (var request : requests) {
+                inFlight.acquire();
+                // Responses are not checked: failed conversions warm up their own code path as well
+                client.sendAsync(request, HttpResponse.BodyHandlers.discarding()).whenComplete((response, cause) -> {
+                    if (cause != null) {
+                        error.compareAndSet(null, cause);
+                    }
+                    inFlight.release();
+                });
+            }
+            count += requests.size();
+        }
+        inFlight.acquire(MAX_IN_FLIGHT);
+
+        if (error.get() != null) {
+            throw new IOException("Warmup request failed: " + error.get());
+        }
+        return count * 1e9 / Math.max(1, System.nanoTime() - begin);
+    }
+
+    private static List<JsonObject> readLog(Path logFile) throws IOException {
+        var result = new ArrayList<JsonObject>();
+        var lineNumber = 0;
+        for (var line : Files.readAllLines(logFile, StandardCharsets.UTF_8)) {
+            lineNumber++;
+            if (line.isBlank()) {
+                continue;
+            }
+
+            try {
+                var json = JsonParser.parseString(line).getAsJsonObject();
+                var body = new JsonObject();
+                body.addProperty("from", json.get("from").getAsString());
+                body.addProperty("to", json.get("to").getAsString());
+                if (json.has("catalog")) {
+                    body.addProperty("catalog", json.get("catalog").getAsString());
+                }
+                result.add(body);
+            } catch (RuntimeException exception) {
+                LOG.warn(String.format("Skipping incorrect warmup request at %s:%d", logFile, lineNumber));
+            }
+        }
+        return result;
+    }
+}
@@ -0,0 +1,164 @@
+package org.madbunny.converter.server.admission;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class AdmissionControllerTest {
+    private static final long WINDOW_NANOS = 100_000_000;
+    private static final long MILLISECOND_NANOS = 1_000_000;
+
+    @Test
+    void limitGrowsWhileLatencyIsSteady() {
+        var controller = new AdmissionController(100, 10, 1000, 1000, 1.0);
+        var clock = new Clock();
+        for (int i = 0; i < 10; i++) {
+            runWindow(controller, clock, 1, MILLISECOND_NANOS, 50);
+        }
+        assertTrue(controller.getLimit() > 100, "Limit: " + controller.getLimit());
+    }
+
+    @Test
+    void limitGrowsNoMoreThanTheMaximum() {
+        var controller = new AdmissionController(100, 10, 101, 1000, 1.0);
+        var clock = new Clock();
+        for (int i = 0; i < 10; i++) {
+            runWindow(controller, clock, 1, MILLISECOND_NANOS, 200);
+        }
+        assertEquals(101, controller.getLimit());
+    }
+
+    @Test
+    void limitIsCutOncePerWindowWhenLatencyDegrades() {
+        var controller = new AdmissionController(100, 10, 1000, 1000, 1.0);
+        var clock = new Clock();
+        runWindow(controller, clock, 1, MILLISECOND_NANOS, 50);
+        runWindow(controller, clock, 1, MILLISECOND_NANOS, 50);
+        var before = controller.getLimit();
+
+        runWindow(controller, clock, 1, 3 * MILLISECOND_NANOS, 200);
+        var after = controller.getLimit();
+        assertTrue(after >= before * 0.9 - 1 && after <= before * 0.9, before + " -> " + after);
+
+        runWindow(controller, clock, 1, 3 * MILLISECOND_NANOS, 200);
+        assertTrue(controller.getLimit() < after, after + " -> " + controller.getLimit());
+    }
+
+    @Test
+    void limitIsNotCutBelowTheMinimum() {
+        var controller = new AdmissionController(100, 95, 1000, 1000, 1.0);
+        var clock = new Clock();
+        runWindow(controller, clock, 1, MILLISECOND_NANOS, 50);
+        for (int i = 0; i < 5; i++) {
+            runWindow(controller, clock, 1, 10 * MILLISECOND_NANOS, 50);
+        }
+        assertEquals(95, controller.getLimit());
+    }
+
+    @Test
+    void moderateLatencyGrowthIsTolerated() {
+        var controller = new AdmissionController(100, 10, 1000, 1000, 1.0);
+        var clock = new Clock();
+        runWindow(controller, clock, 1, MILLISECOND_NANOS, 50);
+        var before = controller.getLimit();
+        runWindow(controller, clock, 1, 3 * MILLISECOND_NANOS / 2, 50);
+        assertTrue(controller.getLimit() >= before, before + " -> " + controller.getLimit());
+    }
+
+    @Test
+    void fewSlowSamplesDoNotCutTheLimit() {
+        var controller = new AdmissionController(100, 10, 1000, 1000, 1.0);
+        var clock = new Clock();
+        runWindow(controller, clock, 1, MILLISECOND_NANOS, 50);
+        var before = controller.getLimit();
+        runWindow(controller, clock, 1, 10 * MILLISECOND_NANOS, 3);
+        assertTrue(controller.getLimit() >= before, before + " -> " + controller.getLimit());
+    }
+
+    @Test
+    void latencyIsComparedPerUnitOfCost() {
+        var controller = new AdmissionController(100, 10, 1000, 1000, 1.0);
+        var clock = new Clock();
+        runWindow(controller, clock, 1, MILLISECOND_NANOS, 50);
+        var before = controller.getLimit();
+        // Twenty times the cost at twenty times the latency is the same throughput
+        runWindow(controller, clock, 20, 20 * MILLISECOND_NANOS, 50);
+        runWindow(controller, clock, 20, 20 * MILLISECOND_NANOS, 50);
+        assertTrue(controller.getLimit() >= before, before + " -> " + controller.getLimit());
+    }
+
+    @Test
+    void expensiveRequestsUseOnlyAShareOfTheLimit() {
+        var controller = new AdmissionController(100, 10, 1000, 10, 0.5);
+        for (int i = 0; i < 4; i++) {
+            assertNotNull(controller.tryAcquire(10));
+        }
+        assertNotNull(controller.tryAcquire(5));
+        assertNull(controller.tryAcquire(11));
+        for (int i = 0; i < 5; i++) {
+            assertNotNull(controller.tryAcquire(10));
+        }
+        assertNotNull(controller.tryAcquire(5));
+        assertNull(controller.tryAcquire(1));
+
+        var controllerForExpensive = new AdmissionController(100, 10, 1000, 10, 0.5);
+        assertNotNull(controllerForExpensive.tryAcquire(20));
+        assertNotNull(controllerForExpensive.tryAcquire(20));
+        assertNull(controllerForExpensive.tryAcquire(20));
+        assertNotNull(controllerForExpensive.tryAcquire(10));
+    }
+
+    @Test
+    void singleRequestIsAlwaysAdmitted() {
+        var controller = new AdmissionController(100, 10, 1000, 10, 0.5);
+        var permit = controller.tryAcquire(1000);
+        assertNotNull(permit);
+        assertNull(controller.tryAcquire(1));
+        controller.release(permit);
+        assertNotNull(controller.tryAcquire(1));
+    }
+
+    @Test
+    void releasedCostIsAvailableAgain() {
+        var controller = new AdmissionController(100, 10, 1000, 1000, 1.0);
+        var permits = new ArrayList<AdmissionController.Permit>();
+        for (int i = 0; i < 10; i++) {
+            permits.add(controller.tryAcquire(10));
+        }
+        assertNull(controller.tryAcquire(1));
+        controller.release(permits.get(0));
+        assertNotNull(controller.tryAcquire(10));
+        assertNull(controller.tryAcquire(1));
+    }
+
+    @Test
+    void unlimitedAdmitsEverything() {
+        var controller = AdmissionController.unlimited();
+        for (int i = 0; i < 100; i++) {
+            assertNotNull(controller.tryAcquire(Long.MAX_VALUE / 2));
+        }
+    }
+
+    // Time of the controller: starts no earlier than its first window, which is opened at its construction
+    private static class Clock {
+        long nowNanos = System.nanoTime();
+    }
+
+    // Processes requests spread evenly over a window, the last of them closes it
+    private static void runWindow(AdmissionController controller, Clock clock, long cost, long latencyNanos,
+                                  int requests) {
+        var windowStart = clock.nowNanos;
+        for (int i = 1; i <= requests; i++) {
+            var now = windowStart + WINDOW_NANOS * i / requests;
+            var permit = controller.tryAcquire(cost, now - latencyNanos);
+            assertNotNull(permit);
+            controller.release(permit, now);
+        }
+        clock.nowNanos = windowStart + WINDOW_NANOS;
+    }
+}
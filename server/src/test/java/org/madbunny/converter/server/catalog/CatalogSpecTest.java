@@ -0,0 +1,57 @@
+package org.madbunny.converter.server.catalog;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CatalogSpecTest {
+    @Test
+    void singleFileIsTheDefaultCatalog() {
+        var specs = CatalogSpec.parse("/data/c++/units.csv", Set.of());
+        assertEquals(1, specs.size());
+        assertEquals(CatalogSpec.DEFAULT_NAME, specs.get(0).name);
+        assertEquals("/data/c++/units.csv", specs.get(0).fileName);
+        assertNull(specs.get(0).baseName);
+    }
+
+    @Test
+    void parsesNamedAndLayeredCatalogs() {
+        var specs = CatalogSpec.parse("physical=units.csv, acme = physical+acme.csv", Set.of("acme"));
+        assertEquals(2, specs.size());
+        assertEquals("physical", specs.get(0).name);
+        assertEquals("units.csv", specs.get(0).fileName);
+        assertNull(specs.get(0).baseName);
+        assertFalse(specs.get(0).lazy);
+        assertEquals("acme", specs.get(1).name);
+        assertEquals("acme.csv", specs.get(1).fileName);
+        assertEquals("physical", specs.get(1).baseName);
+        assertTrue(specs.get(1).lazy);
+    }
+
+    @Test
+    void plusWithinAPathIsNotALayerSeparator() {
+        var specs = CatalogSpec.parse("a=/data/c++/units.csv,b=data/c+units.csv,c=c++.csv,d=base+/data/c++/d.csv",
+                Set.of());
+        assertEquals("/data/c++/units.csv", specs.get(0).fileName);
+        assertNull(specs.get(0).baseName);
+        assertEquals("data/c+units.csv", specs.get(1).fileName);
+        assertNull(specs.get(1).baseName);
+        assertEquals("c++.csv", specs.get(2).fileName);
+        assertNull(specs.get(2).baseName);
+        assertEquals("/data/c++/d.csv", specs.get(3).fileName);
+        assertEquals("base", specs.get(3).baseName);
+    }
+
+    @Test
+    void rejectsIncorrectEntries() {
+        assertThrows(IllegalArgumentException.class, () -> CatalogSpec.parse("a=units.csv,b", Set.of()));
+        assertThrows(IllegalArgumentException.class, () -> CatalogSpec.parse("a=units.csv,=b.csv", Set.of()));
+        assertThrows(IllegalArgumentException.class, () -> CatalogSpec.parse("a=units.csv,b= ", Set.of()));
+    }
+}